@@ -2,6 +2,11 @@ package academy.devdojo.springboot2;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableAsync;
 
 /**
  * A classe que inicia a aplicação;
@@ -15,7 +20,15 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @Configuration: serve para trabalhar com filtros de segurança;
  * @SpringBootApplication: engloba o @ComponentScan, @EnableAutoConfiguration e @Configuration;
  */
-@SpringBootApplication
+/**
+ * O R2DBC é usado apenas na leitura reativa (config.ReactiveDatabaseConfig). As
+ * configurações automáticas dele ficam de fora para que o gerenciador de transações
+ * reativo e os repositórios R2DBC não concorram com os do JPA.
+ */
+@SpringBootApplication(exclude = { R2dbcAutoConfiguration.class, R2dbcDataAutoConfiguration.class,
+		R2dbcRepositoriesAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class })
+/** Métodos @Async rodam no applicationTaskExecutor (virtual threads em config.VirtualThreadsConfig) */
+@EnableAsync
 public class Springboot2EssentialsApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,252 @@
+package academy.devdojo.springboot2.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2.responses.AnimeBatchResponse;
+import academy.devdojo.springboot2.wrapper.PageableResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Builder;
+
+/**
+ * Cliente da API de animes para outros serviços. As conexões ficam em um pool do
+ * Apache HttpClient com keep-alive, então as requisições não pagam o handshake
+ * TCP a cada chamada como no RestTemplate padrão. Os métodos *Async rodam em um
+ * pool próprio de maxConcurrentRequests threads, que é também o limite de
+ * requisições simultâneas deste cliente.
+ *
+ * Deve ser criado uma vez e compartilhado; close() fecha o pool de conexões.
+ *
+ * Com cacheSize os GETs passam pelo CachingClientHttpRequestInterceptor, que
+ * respeita o Cache-Control e a ETag das respostas. As métricas do cache vão para
+ * o meterRegistry, se informado.
+ *
+ * <pre>
+ * try (AnimeClient client = AnimeClient.builder().baseUrl("http://localhost:8080")
+ *         .username("user").password("secret").build()) {
+ *     client.streamAll(100).forEach(anime -&gt; ...);
+ * }
+ * </pre>
+ */
+public class AnimeClient implements Closeable {
+
+    private static final ParameterizedTypeReference<PageableResponse<Anime>> PAGE_TYPE =
+            new ParameterizedTypeReference<PageableResponse<Anime>>() {
+            };
+
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final ExecutorService executor;
+    private final CachingClientHttpRequestInterceptor cache;
+
+    /**
+     * @param maxConnections         conexões abertas com o servidor (padrão 20)
+     * @param maxConcurrentRequests  requisições assíncronas em andamento (padrão maxConnections)
+     * @param connectTimeout         padrão 2 segundos
+     * @param readTimeout            padrão 10 segundos
+     * @param cacheSize              respostas guardadas; sem ele não há cache
+     */
+    @Builder
+    private AnimeClient(String baseUrl, String username, String password, Integer maxConnections,
+            Integer maxConcurrentRequests, Duration connectTimeout, Duration readTimeout, Long cacheSize,
+            MeterRegistry meterRegistry) {
+        int connections = maxConnections != null ? maxConnections : 20;
+        int concurrency = maxConcurrentRequests != null ? maxConcurrentRequests : connections;
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(connections);
+        connectionManager.setDefaultMaxPerRoute(connections);
+        /** Conexões paradas há algum tempo podem ter sido fechadas pelo servidor */
+        connectionManager.setValidateAfterInactivity(2_000);
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(millis(connectTimeout, Duration.ofSeconds(2)))
+                        .setConnectionRequestTimeout(millis(readTimeout, Duration.ofSeconds(10)))
+                        .setSocketTimeout(millis(readTimeout, Duration.ofSeconds(10)))
+                        .build())
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .build();
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(this.httpClient);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(baseUrl));
+        if (username != null) {
+            this.restTemplate.getInterceptors().add(new BasicAuthenticationInterceptor(username, password));
+        }
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "anime-client-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+        /** Depois da autenticação, para que a revalidação em segundo plano leve o Authorization */
+        if (cacheSize != null && cacheSize > 0) {
+            this.cache = new CachingClientHttpRequestInterceptor(cacheSize, requestFactory, this.executor);
+            this.restTemplate.getInterceptors().add(this.cache);
+            if (meterRegistry != null) {
+                this.cache.bindTo(meterRegistry);
+            }
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public Optional<Anime> findById(long id) {
+        try {
+            return Optional.ofNullable(this.restTemplate.getForObject("/anime/{id}", Anime.class, id));
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
+    public CompletableFuture<Optional<Anime>> findByIdAsync(long id) {
+        return this.async(() -> this.findById(id));
+    }
+
+    /** Vários animes em uma só requisição (POST /anime/batch), em vez de um findById por id */
+    public AnimeBatchResponse findAllById(Collection<Long> ids) {
+        return this.restTemplate.postForObject("/anime/batch", ids, AnimeBatchResponse.class);
+    }
+
+    /** Página ordenada por id, para que a paginação seja estável enquanto novos animes são gravados */
+    public PageableResponse<Anime> list(int page, int size) {
+        return this.restTemplate.exchange("/anime?page={page}&size={size}&sort=id", HttpMethod.GET, null, PAGE_TYPE,
+                page, size).getBody();
+    }
+
+    public CompletableFuture<PageableResponse<Anime>> listAsync(int page, int size) {
+        return this.async(() -> this.list(page, size));
+    }
+
+    public Anime save(AnimePostRequestBody animeBody) {
+        return this.restTemplate.postForObject("/anime", animeBody, Anime.class);
+    }
+
+    public CompletableFuture<Anime> saveAsync(AnimePostRequestBody animeBody) {
+        return this.async(() -> this.save(animeBody));
+    }
+
+    /**
+     * Percorre todos os animes página a página. A próxima página é pedida assim que
+     * a atual chega, então enquanto o chamador processa uma página a seguinte já
+     * está a caminho. Nada é buscado antes do primeiro hasNext().
+     */
+    public Iterator<Anime> iterateAll(int pageSize) {
+        return new PrefetchingIterator(pageSize);
+    }
+
+    public Stream<Anime> streamAll(int pageSize) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this.iterateAll(pageSize),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /** Contadores do cache de respostas, vazio quando o cliente foi criado sem cacheSize */
+    public Optional<CachingClientHttpRequestInterceptor> getCache() {
+        return Optional.ofNullable(this.cache);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.executor.shutdownNow();
+        this.httpClient.close();
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, this.executor);
+    }
+
+    private static int millis(Duration duration, Duration defaultDuration) {
+        return (int) (duration != null ? duration : defaultDuration).toMillis();
+    }
+
+    private class PrefetchingIterator implements Iterator<Anime> {
+        private final int pageSize;
+        private Iterator<Anime> current = Collections.emptyIterator();
+        private CompletableFuture<PageableResponse<Anime>> next;
+        private int nextPage;
+
+        private PrefetchingIterator(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.current.hasNext()) {
+                if (this.next == null && this.nextPage > 0) {
+                    return false;
+                }
+                PageableResponse<Anime> page = this.await(this.next != null ? this.next : this.fetch());
+                this.nextPage++;
+                this.next = this.hasMorePages(page) ? this.fetch() : null;
+                this.current = page.getContent().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Anime next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.current.next();
+        }
+
+        /**
+         * Não usa o "last": ele depende do total, que o servidor guarda em memória e
+         * pode estar desatualizado. Uma página cheia indica que pode haver outra; no
+         * pior caso a última requisição volta vazia.
+         */
+        private boolean hasMorePages(PageableResponse<Anime> page) {
+            return page.getNumberOfElements() > 0 && page.getNumberOfElements() >= page.getSize();
+        }
+
+        private CompletableFuture<PageableResponse<Anime>> fetch() {
+            return AnimeClient.this.listAsync(this.nextPage, this.pageSize);
+        }
+
+        private PageableResponse<Anime> await(CompletableFuture<PageableResponse<Anime>> page) {
+            try {
+                return page.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package academy.devdojo.springboot2.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Cache das respostas dos GETs do lado do cliente, seguindo o Cache-Control e a
+ * ETag que a API devolve:
+ * - dentro do max-age a resposta é servida da memória, sem requisição;
+ * - vencida, mas dentro do stale-while-revalidate, a resposta antiga é servida e
+ *   uma única revalidação roda em segundo plano;
+ * - fora disso (ou com no-cache) a requisição leva If-None-Match e um 304 reusa o
+ *   corpo guardado.
+ * Respostas com no-store ou sem ETag e sem max-age não são guardadas. PUT, POST e
+ * DELETE descartam a entrada da mesma URL.
+ *
+ * O tamanho é limitado pelo Caffeine, como os outros caches do projeto, que
+ * descarta as entradas menos usadas. A chave é só a URL, então cada instância
+ * deve atender um único usuário (as credenciais do AnimeClient).
+ */
+@Log4j2
+public class CachingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String METRIC_NAME = "anime.client.cache";
+
+    private final Cache<URI, CachedResponse> cache;
+    private final ClientHttpRequestFactory refreshRequestFactory;
+    private final Executor refreshExecutor;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param refreshRequestFactory cria as requisições da revalidação em segundo
+     *                              plano, fora da cadeia de interceptors
+     */
+    public CachingClientHttpRequestInterceptor(long maximumSize, ClientHttpRequestFactory refreshRequestFactory,
+            Executor refreshExecutor) {
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        this.refreshRequestFactory = refreshRequestFactory;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (request.getMethod() != HttpMethod.GET) {
+            this.cache.invalidate(request.getURI());
+            return execution.execute(request, body);
+        }
+        CachedResponse cached = this.cache.getIfPresent(request.getURI());
+        long now = System.nanoTime();
+        if (cached != null && cached.isFresh(now)) {
+            this.hits.increment();
+            return cached.toResponse();
+        }
+        if (cached != null && cached.isStaleButUsable(now)) {
+            this.staleHits.increment();
+            this.refreshInBackground(request, cached);
+            return cached.toResponse();
+        }
+        /** Respostas só com max-age também ficam em cache, mas sem ETag não há o que revalidar */
+        if (cached != null && cached.getEtag() != null) {
+            request.getHeaders().setIfNoneMatch(cached.getEtag());
+        }
+        ClientHttpResponse response = execution.execute(request, body);
+        return this.store(request.getURI(), cached, response);
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getStaleHits() {
+        return this.staleHits.sum();
+    }
+
+    public long getRevalidated() {
+        return this.revalidated.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /** anime.client.cache{result=hit|stale|revalidated|miss}: hit e stale são requisições que não foram feitas */
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_NAME, this, CachingClientHttpRequestInterceptor::getHits).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(METRIC_NAME, this, CachingClientHttpRequestInterceptor::getStaleHits)
+                .tag("result", "stale").register(registry);
+        FunctionCounter.builder(METRIC_NAME, this, CachingClientHttpRequestInterceptor::getRevalidated)
+                .tag("result", "revalidated").register(registry);
+        FunctionCounter.builder(METRIC_NAME, this, CachingClientHttpRequestInterceptor::getMisses)
+                .tag("result", "miss").register(registry);
+    }
+
+    private ClientHttpResponse store(URI uri, CachedResponse cached, ClientHttpResponse response) throws IOException {
+        if (cached != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+            this.revalidated.increment();
+            CachedResponse refreshed = cached.revalidated(response.getHeaders(), System.nanoTime());
+            response.close();
+            this.cache.put(uri, refreshed);
+            return refreshed.toResponse();
+        }
+        this.misses.increment();
+        CacheDirectives directives = CacheDirectives.parse(response.getHeaders().getCacheControl());
+        String etag = response.getHeaders().getETag();
+        if (response.getRawStatusCode() != HttpStatus.OK.value() || directives.noStore
+                || (etag == null && directives.maxAgeNanos == 0)) {
+            this.cache.invalidate(uri);
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        CachedResponse stored;
+        try (InputStream body = response.getBody()) {
+            stored = new CachedResponse(HttpHeaders.readOnlyHttpHeaders(headers),
+                    StreamUtils.copyToByteArray(body), etag, System.nanoTime(), directives.maxAgeNanos,
+                    directives.staleWhileRevalidateNanos, new AtomicBoolean());
+        } finally {
+            response.close();
+        }
+        this.cache.put(uri, stored);
+        return stored.toResponse();
+    }
+
+    /** Só uma revalidação por entrada; enquanto ela roda, as outras chamadas recebem a resposta antiga */
+    private void refreshInBackground(HttpRequest request, CachedResponse cached) {
+        if (!cached.getRefreshing().compareAndSet(false, true)) {
+            return;
+        }
+        URI uri = request.getURI();
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(request.getHeaders());
+        headers.setIfNoneMatch(cached.getEtag());
+        try {
+            this.refreshExecutor.execute(() -> {
+                try {
+                    ClientHttpRequest refresh = this.refreshRequestFactory.createRequest(uri, HttpMethod.GET);
+                    refresh.getHeaders().putAll(headers);
+                    this.store(uri, cached, refresh.execute()).close();
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not revalidate {}: {}", uri, e.getMessage());
+                } finally {
+                    cached.getRefreshing().set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            /** Cliente sendo fechado: a resposta antiga ainda é servida desta vez */
+            cached.getRefreshing().set(false);
+        }
+    }
+
+    @Value
+    private static class CachedResponse {
+        HttpHeaders headers;
+        byte[] body;
+        String etag;
+        long storedAt;
+        long maxAgeNanos;
+        long staleWhileRevalidateNanos;
+        AtomicBoolean refreshing;
+
+        boolean isFresh(long now) {
+            return now - this.storedAt < this.maxAgeNanos;
+        }
+
+        boolean isStaleButUsable(long now) {
+            return this.etag != null && now - this.storedAt < this.maxAgeNanos + this.staleWhileRevalidateNanos;
+        }
+
+        /** O 304 pode trazer um Cache-Control novo; sem ele valem os tempos anteriores */
+        CachedResponse revalidated(HttpHeaders notModifiedHeaders, long now) {
+            if (notModifiedHeaders.getCacheControl() == null) {
+                return new CachedResponse(this.headers, this.body, this.etag, now, this.maxAgeNanos,
+                        this.staleWhileRevalidateNanos, new AtomicBoolean());
+            }
+            CacheDirectives directives = CacheDirectives.parse(notModifiedHeaders.getCacheControl());
+            return new CachedResponse(this.headers, this.body, this.etag, now, directives.maxAgeNanos,
+                    directives.staleWhileRevalidateNanos, new AtomicBoolean());
+        }
+
+        ClientHttpResponse toResponse() {
+            return new ClientHttpResponse() {
+                @Override
+                public HttpStatus getStatusCode() {
+                    return HttpStatus.OK;
+                }
+
+                @Override
+                public int getRawStatusCode() {
+                    return HttpStatus.OK.value();
+                }
+
+                @Override
+                public String getStatusText() {
+                    return HttpStatus.OK.getReasonPhrase();
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return CachedResponse.this.headers;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return new ByteArrayInputStream(CachedResponse.this.body);
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+
+    /** Diretivas do Cache-Control que interessam ao cache: no-store, no-cache, max-age e stale-while-revalidate */
+    private static final class CacheDirectives {
+        private final boolean noStore;
+        private final long maxAgeNanos;
+        private final long staleWhileRevalidateNanos;
+
+        private CacheDirectives(boolean noStore, long maxAgeNanos, long staleWhileRevalidateNanos) {
+            this.noStore = noStore;
+            this.maxAgeNanos = maxAgeNanos;
+            this.staleWhileRevalidateNanos = staleWhileRevalidateNanos;
+        }
+
+        static CacheDirectives parse(String cacheControl) {
+            if (cacheControl == null) {
+                return new CacheDirectives(false, 0, 0);
+            }
+            boolean noStore = false;
+            boolean noCache = false;
+            boolean mustRevalidate = false;
+            long maxAge = 0;
+            long staleWhileRevalidate = 0;
+            for (String directive : cacheControl.split(",")) {
+                String trimmed = directive.trim().toLowerCase(Locale.ROOT);
+                if (trimmed.equals("no-store")) {
+                    noStore = true;
+                } else if (trimmed.equals("no-cache")) {
+                    noCache = true;
+                } else if (trimmed.equals("must-revalidate")) {
+                    mustRevalidate = true;
+                } else if (trimmed.startsWith("max-age=")) {
+                    maxAge = seconds(trimmed.substring("max-age=".length()));
+                } else if (trimmed.startsWith("stale-while-revalidate=")) {
+                    staleWhileRevalidate = seconds(trimmed.substring("stale-while-revalidate=".length()));
+                }
+            }
+            if (noCache) {
+                return new CacheDirectives(noStore, 0, 0);
+            }
+            /** must-revalidate proíbe usar a resposta vencida, mas ela continua fresca pelo max-age */
+            return new CacheDirectives(noStore, TimeUnit.SECONDS.toNanos(maxAge),
+                    mustRevalidate ? 0 : TimeUnit.SECONDS.toNanos(staleWhileRevalidate));
+        }
+
+        private static long seconds(String value) {
+            try {
+                return Math.max(0, Long.parseLong(value.trim()));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package academy.devdojo.springboot2.client;
 
-import org.springframework.web.client.RestTemplate;
+import java.io.IOException;
 
 import academy.devdojo.springboot2.domain.Anime;
 import lombok.extern.log4j.Log4j2;
 
+/** Credenciais por propriedade de sistema: -Danime.username=... -Danime.password=... */
 @Log4j2
 public class SpringClient {
-    public static void main(String[] args) {
-        Anime anime = new RestTemplate().getForObject("http://localhost:8080/anime/11", Anime.class);
-        log.info(anime);
+    public static void main(String[] args) throws IOException {
+        try (AnimeClient client = AnimeClient.builder().baseUrl("http://localhost:8080")
+                .username(System.getProperty("anime.username"))
+                .password(System.getProperty("anime.password")).build()) {
+            Anime anime = client.findById(11).orElse(null);
+            log.info(anime);
+            client.streamAll(50).limit(200).forEach(log::info);
+        }
     }
 }
@@ -0,0 +1,22 @@
+package academy.devdojo.springboot2.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+/**
+ * O Spring Boot registra no ObjectMapper todo Module declarado como bean. Com o
+ * Afterburner os getters e setters das classes públicas (AnimeResponse,
+ * CompactPage) são chamados por classes geradas em bytecode na primeira
+ * serialização, e não por reflexão a cada requisição.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+}
@@ -0,0 +1,69 @@
+package academy.devdojo.springboot2.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+/**
+ * Conexões R2DBC usadas apenas pela leitura reativa (GET /anime/reactive). O JPA
+ * continua com o pool JDBC dele; aqui existe um segundo pool, pequeno, porque
+ * uma conexão reativa atende muitas requisições sem prender threads.
+ *
+ * Desligado por padrão: habilite com anime.reactive.enabled=true.
+ *
+ * O pool não é registrado como um bean ConnectionFactory: no Boot 2.3 o
+ * DataSourceAutoConfiguration não cria o DataSource quando existe um, e o JPA
+ * ficaria sem banco.
+ */
+@Configuration
+@ConditionalOnProperty(name = "anime.reactive.enabled", havingValue = "true")
+public class ReactiveDatabaseConfig {
+
+    @Bean
+    public AnimeConnectionPool animeConnectionPool(@Value("${anime.reactive.url}") String url,
+            @Value("${anime.reactive.username:}") String username,
+            @Value("${anime.reactive.password:}") String password,
+            @Value("${anime.reactive.pool-size:10}") int poolSize) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (StringUtils.hasText(username)) {
+            options.option(ConnectionFactoryOptions.USER, username);
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        return new AnimeConnectionPool(new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .initialSize(Math.min(2, poolSize))
+                .maxSize(poolSize)
+                .maxIdleTime(Duration.ofMinutes(30))
+                .build()));
+    }
+
+    @Bean
+    public DatabaseClient animeDatabaseClient(AnimeConnectionPool animeConnectionPool) {
+        return DatabaseClient.create(animeConnectionPool.pool);
+    }
+
+    /** Guarda o pool fora do tipo ConnectionFactory e o fecha junto com o contexto */
+    public static final class AnimeConnectionPool implements DisposableBean {
+        private final ConnectionPool pool;
+
+        private AnimeConnectionPool(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void destroy() {
+            this.pool.dispose();
+        }
+    }
+}
@@ -1,13 +1,25 @@
 package academy.devdojo.springboot2.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
+import academy.devdojo.springboot2.security.AuthenticationMetrics;
+import academy.devdojo.springboot2.security.CachingAuthenticationProvider;
+import academy.devdojo.springboot2.security.CredentialCache;
+import academy.devdojo.springboot2.security.TimedAuthenticationProvider;
+import academy.devdojo.springboot2.security.TokenAuthenticationFilter;
+import academy.devdojo.springboot2.security.TokenService;
 import academy.devdojo.springboot2.service.LocalUserDetailsService;
 import lombok.RequiredArgsConstructor;
 
@@ -18,6 +30,13 @@ import lombok.RequiredArgsConstructor;
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     private final LocalUserDetailsService userDetailsService;
+    private final CredentialCache credentialCache;
+    private final TokenService tokenService;
+    private final AuthenticationMetrics authenticationMetrics;
+
+    /** Modo stateless: sem HttpSession e autenticação por token assinado (POST /auth/login) */
+    @Value("${security.token.enabled:false}")
+    private boolean tokenEnabled;
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
@@ -36,6 +55,9 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .antMatchers("/anime/admin/**").hasRole("ADMIN")
                 .antMatchers("/anime/**").hasRole("USER")
                 .antMatchers("/actuator/**").permitAll()
+                .antMatchers("/auth/login").permitAll()
+                // O 401 do httpBasic é encaminhado ao /error; sem isso ele viraria um redirect para o /login
+                .antMatchers("/error").permitAll()
                 // Para qualquer requisição
                 .anyRequest()
                 // esteja autenticada
@@ -43,11 +65,25 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 // e
                 .and()
                 // o modo de autenticação é base 64
-                .httpBasic()
-                // e
-                .and()
-                // o modo de autenticação também é formulário
-                .formLogin();
+                .httpBasic();
+
+        if (this.tokenEnabled) {
+            http
+                    // nenhuma sessão é criada no servidor, cada requisição traz o seu token
+                    .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                    .and()
+                    .addFilterBefore(new TokenAuthenticationFilter(tokenService, authenticationMetrics), BasicAuthenticationFilter.class);
+        } else {
+            // o modo de autenticação também é formulário
+            http.formLogin();
+        }
+    }
+
+    /** Expõe o AuthenticationManager para o endpoint de login do modo stateless */
+    @Bean
+    @Override
+    public AuthenticationManager authenticationManagerBean() throws Exception {
+        return super.authenticationManagerBean();
     }
 
     @Override
@@ -58,7 +94,13 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         //    .and()
         //    .withUser("root").password(passwordEncoder.encode("root")).roles("ADMIN");
         /** Instanciamos o UserDetailsService para que o spring tenha o serviço específico para gerir os usuários */
-        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider();
+        daoProvider.setUserDetailsService(userDetailsService);
+        daoProvider.setPasswordEncoder(passwordEncoder);
+        /** As credenciais já verificadas não passam de novo pelo banco e pelo bcrypt */
+        /** O tempo de cada autenticação fica no timer security.authentication */
+        auth.authenticationProvider(new TimedAuthenticationProvider(
+                new CachingAuthenticationProvider(daoProvider, credentialCache), authenticationMetrics));
     }
 
 }
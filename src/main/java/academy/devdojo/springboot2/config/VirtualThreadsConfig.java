@@ -0,0 +1,71 @@
+package academy.devdojo.springboot2.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+/**
+ * Modo opcional em que as requisições do Tomcat, os métodos @Async e as respostas
+ * assíncronas do MVC rodam em virtual threads (Java 21+). Cada requisição ganha a
+ * sua thread, então uma consulta lenta no MySQL não ocupa uma das 200 threads do
+ * pool fixo do Tomcat. O limite passa a ser o pool de conexões do Hikari, onde as
+ * virtual threads esperam sem prender a thread do sistema operacional.
+ *
+ * A propriedade é a mesma do Spring Boot 3.2 (spring.threads.virtual.enabled).
+ * As APIs de virtual threads são chamadas por reflexão porque o projeto ainda é
+ * compilado para o Java 11; com o modo habilitado em um Java anterior ao 21 a
+ * aplicação não sobe.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public ExecutorService tomcatVirtualThreadExecutor() {
+        return newVirtualThreadPerTaskExecutor("tomcat-handler-");
+    }
+
+    @Bean
+    public ExecutorService taskVirtualThreadExecutor() {
+        return newVirtualThreadPerTaskExecutor("task-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer(
+            ExecutorService tomcatVirtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(tomcatVirtualThreadExecutor);
+    }
+
+    /** Substitui o pool do Spring Boot usado pelo @Async e pelo StreamingResponseBody */
+    @Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService taskVirtualThreadExecutor) {
+        return new TaskExecutorAdapter(taskVirtualThreadExecutor);
+    }
+
+    /** Equivale a Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory()) */
+    static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            throw new IllegalStateException("spring.threads.virtual.enabled requires Java 21 or newer", e);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Could not create the virtual thread executor", e);
+        }
+    }
+}
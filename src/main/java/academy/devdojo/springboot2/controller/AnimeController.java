@@ -1,10 +1,23 @@
 package academy.devdojo.springboot2.controller;
 
 import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.mapper.AnimeMapper;
 import academy.devdojo.springboot2.requests.AnimePostRequestBody;
 import academy.devdojo.springboot2.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2.responses.AnimeBatchResponse;
+import academy.devdojo.springboot2.responses.AnimeBulkResponse;
+import academy.devdojo.springboot2.responses.AnimeImportReport;
+import academy.devdojo.springboot2.responses.AnimeResponse;
+import academy.devdojo.springboot2.responses.AnimeSearchHit;
+import academy.devdojo.springboot2.service.AnimeBulkService;
+import academy.devdojo.springboot2.service.AnimeImportService;
 import academy.devdojo.springboot2.service.AnimeService;
+import academy.devdojo.springboot2.util.AnimeFields;
 import academy.devdojo.springboot2.util.DateUtil;
+import academy.devdojo.springboot2.util.ETags;
+import academy.devdojo.springboot2.util.HttpCachePolicy;
+import academy.devdojo.springboot2.wrapper.CompactPage;
+import academy.devdojo.springboot2.wrapper.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -14,7 +27,10 @@ import lombok.extern.log4j.Log4j2;
 import org.springdoc.api.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -24,12 +40,18 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import org.springframework.web.bind.annotation.PutMapping;
@@ -42,7 +64,10 @@ import org.springframework.web.bind.annotation.PutMapping;
 @RequiredArgsConstructor
 public class AnimeController {
     private final AnimeService animeService;
+    private final AnimeBulkService animeBulkService;
+    private final AnimeImportService animeImportService;
     private final DateUtil dateUtil;
+    private final HttpCachePolicy httpCachePolicy;
 
     /**
      * Page (pacote springframework.data.domain) é o padrão do spring para
@@ -52,28 +77,140 @@ public class AnimeController {
      * Pageable (pacote springframework.data.domain) captura os dados de paginação
      * da request. Por exemplo os parametros size, sort e page
      */
+    /**
+     * As páginas levam uma ETag calculada a partir dos ids e versões. Se o cliente
+     * já tem a página (If-None-Match) a resposta é 304, sem serializar o corpo.
+     */
+    /**
+     * O corpo é uma CompactPage de AnimeResponse: só os campos usados pelo cliente,
+     * sem os objetos pageable e sort da Page.
+     */
+    /**
+     * Com fields=id,name (ou só um deles) a consulta usa a projeção AnimeSummary e
+     * seleciona apenas essas colunas; essa resposta não tem ETag, que depende da
+     * versão. Com version entre os campos a entidade é carregada como antes.
+     */
     @GetMapping
     /** Descrição do endpoint para o poenApi */
-    @Operation(summary = "List all animes paginated", description = "The default size is 20. Use parameter size to change.", tags = {"anime"})
-    public ResponseEntity<Page<Anime>> list(/** Define os parametros certos no swagger */@ParameterObject Pageable pageable) {
+    @Operation(summary = "List all animes paginated", description = "The default size is 20. Use parameter size to change. Use fields (id, name, version) to return only some fields.", tags = {"anime"})
+    public ResponseEntity<CompactPage<AnimeResponse>> list(/** Define os parametros certos no swagger */@ParameterObject Pageable pageable,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(name = "fields", required = false) String fields) {
         log.info(this.dateUtil.formatLocalDateTimeToDatabaseStyle(LocalDateTime.now()));
-        return ResponseEntity.ok(animeService.listAll(pageable));
+        AnimeFields selected = fields == null ? null : AnimeFields.parse(fields);
+        if (selected != null && !selected.needsEntity()) {
+            return ResponseEntity.ok(CompactPage.of(animeService.listAllSummaries(pageable), selected::toResponse));
+        }
+        Page<Anime> page = animeService.listAll(pageable);
+        return ETags.okOrNotModified(ETags.of(page), ifNoneMatch, this.httpCachePolicy.cacheControl(),
+                () -> toResponse(page, selected));
+    }
+
+    /**
+     * Com o parâmetro slice=true a resposta é um Slice: sem totalElements/totalPages,
+     * apenas se existe ou não uma próxima página. Nenhum COUNT é executado.
+     */
+    @GetMapping(params = "slice=true")
+    @Operation(summary = "List animes as a slice", description = "Returns only whether there is a next page, without totals.", tags = {"anime"})
+    public ResponseEntity<CompactPage<AnimeResponse>> listSlice(@ParameterObject Pageable pageable) {
+        return ResponseEntity.ok(toResponse(animeService.listAllSlice(pageable)));
     }
 
     @GetMapping("find")
-    public ResponseEntity<Page<Anime>> findByName(@RequestParam(name = "name") String name, Pageable pageable) {
-        return ResponseEntity.ok(animeService.findByName(name, pageable));
+    public ResponseEntity<CompactPage<AnimeResponse>> findByName(@RequestParam(name = "name") String name, Pageable pageable,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(name = "fields", required = false) String fields) {
+        AnimeFields selected = fields == null ? null : AnimeFields.parse(fields);
+        if (selected != null && !selected.needsEntity()) {
+            return ResponseEntity.ok(CompactPage.of(animeService.findSummariesByName(name, pageable), selected::toResponse));
+        }
+        Page<Anime> page = animeService.findByName(name, pageable);
+        return ETags.okOrNotModified(ETags.of(page), ifNoneMatch, this.httpCachePolicy.cacheControl(),
+                () -> toResponse(page, selected));
+    }
+
+    @GetMapping(path = "find", params = "slice=true")
+    public ResponseEntity<CompactPage<AnimeResponse>> findByNameSlice(@RequestParam(name = "name") String name, Pageable pageable) {
+        return ResponseEntity.ok(toResponse(animeService.findByNameSlice(name, pageable)));
+    }
+
+    private static CompactPage<AnimeResponse> toResponse(Slice<Anime> slice) {
+        return CompactPage.of(slice, AnimeMapper.INSTANCE::toAnimeResponse);
+    }
+
+    private static CompactPage<AnimeResponse> toResponse(Slice<Anime> slice, AnimeFields fields) {
+        return fields == null ? toResponse(slice) : CompactPage.of(slice, fields::toResponse);
+    }
+
+    /**
+     * Busca por parte do nome, ignorando maiúsculas, acentos e pequenos erros de
+     * digitação. Os resultados vêm ordenados por relevância.
+     */
+    @GetMapping("search")
+    @Operation(summary = "Search animes by partial name", description = "Typo tolerant prefix and substring search ranked by relevance. The default limit is 10.", tags = {"anime"})
+    public ResponseEntity<List<AnimeSearchHit>> search(@RequestParam(name = "q") String query,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(animeService.search(query, limit));
+    }
+
+    /**
+     * Listagem por cursor: o tempo de resposta não aumenta conforme o cliente avança
+     * nas páginas, pois não há OFFSET nem COUNT. Envie o nextCursor da resposta no
+     * parâmetro "after" para buscar a próxima página.
+     */
+    @GetMapping("cursor")
+    @Operation(summary = "List animes by cursor", description = "Send the nextCursor of the previous response as 'after'. No total count is returned.", tags = {"anime"})
+    public ResponseEntity<CursorPage<Anime>> listByCursor(@RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(animeService.listAfter(after, size));
     }
 
+    @GetMapping("find/cursor")
+    public ResponseEntity<CursorPage<Anime>> findByNameByCursor(@RequestParam(name = "name") String name,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(animeService.findByNameAfter(name, after, size));
+    }
+
+    /**
+     * A ETag é a versão do anime. Com If-None-Match apenas a versão é consultada e,
+     * se for a mesma, a resposta é 304 sem carregar a entidade.
+     */
     @GetMapping(path = "/{id}")
-    public ResponseEntity<Anime> findById(@PathVariable("id") Long id) {
-        return ResponseEntity.ok(this.animeService.findByIdOrThrowBadRequestException(id));
+    public ResponseEntity<Anime> findById(@PathVariable("id") Long id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String currentETag = ETags.of(this.animeService.findVersionOrThrowNotFoundException(id));
+            if (ETags.matches(ifNoneMatch, currentETag)) {
+                return ETags.notModified(currentETag, this.httpCachePolicy.cacheControl());
+            }
+        }
+        Anime anime = this.animeService.findByIdOrThrowNotFoundException(id);
+        return ETags.okOrNotModified(ETags.of(anime.getVersion()), null, this.httpCachePolicy.cacheControl(), () -> anime);
+    }
+
+    /**
+     * Vários animes em uma requisição, com uma consulta IN (...) para os que não
+     * estão em cache, em vez de uma chamada ao /anime/{id} por anime. Os ids que não
+     * existem voltam em "missing" e não geram 404.
+     */
+    @GetMapping("batch")
+    @Operation(summary = "Find animes by a list of ids", description = "Up to 1000 comma separated ids. Animes come in the order of the ids; ids not found are listed in missing. Use POST for long lists.", tags = {"anime"})
+    public ResponseEntity<AnimeBatchResponse> findAllByIds(@RequestParam(name = "ids") List<Long> ids) {
+        return ResponseEntity.ok(this.animeService.findAllByIds(ids));
+    }
+
+    /** O mesmo que o GET, com os ids no corpo para listas que não cabem na URL */
+    @PostMapping("batch")
+    @Operation(summary = "Find animes by a list of ids in the body", description = "Same as GET /anime/batch with a JSON array of ids.", tags = {"anime"})
+    public ResponseEntity<AnimeBatchResponse> findAllByIdsInBody(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(this.animeService.findAllByIds(ids));
     }
 
     /** @AuthenticationPrincipal instancia os dados do usuário logado */
     @GetMapping(path = "/user/{id}")
     public ResponseEntity<Anime> findById(@PathVariable("id") Long id, @AuthenticationPrincipal UserDetails user) {
-        return ResponseEntity.ok(this.animeService.findByIdOrThrowBadRequestException(id));
+        return ResponseEntity.ok(this.animeService.findByIdOrThrowNotFoundException(id));
     }
 
     /**
@@ -90,6 +227,60 @@ public class AnimeController {
         return new ResponseEntity<Anime>(this.animeService.save(animeBody), HttpStatus.CREATED);
     }
 
+    /**
+     * Inserção em massa: a lista inteira é validada antes e os INSERTs são enviados
+     * em batches de JDBC. Use para cargas grandes em vez de um POST por anime.
+     */
+    @PostMapping("admin/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Insert a list of animes", description = "All items are validated before any insert. Inserts are sent in JDBC batches.", tags = {"anime"})
+    public ResponseEntity<AnimeBulkResponse> saveAll(@RequestBody List<AnimePostRequestBody> animeBodies) {
+        return new ResponseEntity<>(this.animeBulkService.saveAll(animeBodies), HttpStatus.CREATED);
+    }
+
+    /**
+     * Importa um arquivo NDJSON (um anime por linha) ou CSV (com a coluna "name").
+     * O corpo é lido direto do request, sem ser carregado inteiro na memória, e cada
+     * chunk é gravado em sua própria transação. Linhas inválidas ou com nome já
+     * existente não interrompem a importação, apenas entram no relatório.
+     */
+    @PostMapping(path = "admin/import", consumes = {"application/x-ndjson", "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import animes from NDJSON or CSV", description = "Rows are committed in chunks. Returns the number of accepted, rejected and duplicate rows.", tags = {"anime"})
+    public ResponseEntity<AnimeImportReport> importAnimes(HttpServletRequest request) throws IOException {
+        AnimeImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                        ? AnimeImportService.Format.CSV
+                        : AnimeImportService.Format.NDJSON;
+        return ResponseEntity.ok(this.animeImportService.importFrom(request.getInputStream(), format));
+    }
+
+    /**
+     * Exporta o catálogo inteiro em NDJSON. O StreamingResponseBody escreve na
+     * resposta enquanto lê do banco, fora da thread do Tomcat. Com gzip=true a
+     * resposta é compactada.
+     */
+    @GetMapping(path = "admin/export", produces = "application/x-ndjson")
+    @Operation(summary = "Export all animes as NDJSON", description = "One JSON object per line. Use gzip=true to compress the response.", tags = {"anime"})
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(name = "gzip", defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024)) {
+                    this.animeBulkService.exportTo(gzipOut);
+                }
+            } else {
+                this.animeBulkService.exportTo(out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=animes.ndjson");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     /**
      * O put e o delete devem ser idempotentes (segundo a RFC 7231), o que significa
      * que os métodos não podem ter resultados diferentes após a aplicação inicial.
@@ -98,17 +289,21 @@ public class AnimeController {
      */
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Sucessful Operation"),
-        @ApiResponse(responseCode = "400", description = "Anime not exists"),
+        @ApiResponse(responseCode = "404", description = "Anime not exists"),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version"),
     })
     @DeleteMapping(path = "/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        this.animeService.delete(id);
+    public ResponseEntity<Void> delete(@PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        this.animeService.delete(id, ETags.expectedVersion(ifMatch));
         return new ResponseEntity<Void>(HttpStatus.NO_CONTENT);
     }
 
+    /** Com If-Match (a ETag do GET) a alteração só é aplicada se ninguém alterou o anime antes */
     @PutMapping
-    public ResponseEntity<Void> replace(@RequestBody AnimePutRequestBody animeBody) {
-        this.animeService.replace(animeBody);
+    public ResponseEntity<Void> replace(@RequestBody @Valid AnimePutRequestBody animeBody,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        this.animeService.replace(animeBody, ETags.expectedVersion(ifMatch));
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 }
@@ -0,0 +1,64 @@
+package academy.devdojo.springboot2.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.exception.BadRequestException;
+import academy.devdojo.springboot2.exception.NotFoundException;
+import academy.devdojo.springboot2.repository.AnimeReactiveRepository;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versão não bloqueante das leituras do AnimeController. Ao receber um Mono/Flux o
+ * Spring MVC inicia o processamento assíncrono e devolve a thread do Tomcat ao
+ * pool; a resposta é escrita quando o R2DBC termina a consulta. Assim, com o banco
+ * lento, o número de requisições em andamento não fica limitado ao de threads.
+ *
+ * Fica em /anime/reactive, então vale a mesma regra de segurança de /anime/**.
+ * A listagem é por cursor: envie o id do último anime recebido em "afterId".
+ */
+@RestController
+@RequestMapping("anime/reactive")
+@ConditionalOnProperty(name = "anime.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class AnimeReactiveController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final AnimeReactiveRepository animeReactiveRepository;
+
+    @GetMapping
+    @Operation(summary = "List animes without blocking a server thread", description = "Send the id of the last anime received as 'afterId'. The default size is 20.", tags = {"anime"})
+    public Flux<Anime> list(@RequestParam(name = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return this.animeReactiveRepository.findAfter(afterId, checkSize(size));
+    }
+
+    @GetMapping("find")
+    public Flux<Anime> findByName(@RequestParam(name = "name") String name,
+            @RequestParam(name = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return this.animeReactiveRepository.findByNameAfter(name, afterId, checkSize(size));
+    }
+
+    @GetMapping(path = "/{id}")
+    public Mono<Anime> findById(@PathVariable("id") Long id) {
+        return this.animeReactiveRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Anime not found")));
+    }
+
+    private static int checkSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,45 @@
+package academy.devdojo.springboot2.controller;
+
+import javax.validation.Valid;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import academy.devdojo.springboot2.requests.LoginRequestBody;
+import academy.devdojo.springboot2.responses.TokenResponse;
+import academy.devdojo.springboot2.security.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+
+/** Só existe quando o modo stateless (security.token.enabled) está ativo */
+@RestController
+@RequestMapping("auth")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "security.token.enabled", havingValue = "true")
+public class AuthController {
+    private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
+
+    /** Verifica a senha uma única vez e devolve um token para ser usado no header Authorization: Bearer */
+    @PostMapping("login")
+    @Operation(summary = "Issue a signed token", description = "Use the token in the Authorization: Bearer header", tags = {"auth"})
+    public ResponseEntity<TokenResponse> login(@RequestBody @Valid LoginRequestBody loginBody) {
+        try {
+            Authentication authentication = this.authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginBody.getUsername(), loginBody.getPassword()));
+            return ResponseEntity.ok(new TokenResponse(this.tokenService.issue(authentication), "Bearer",
+                    this.tokenService.getTtlSeconds()));
+        } catch (AuthenticationException e) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+    }
+}
@@ -5,6 +5,10 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotEmpty;
 
 import lombok.AllArgsConstructor;
@@ -17,13 +21,30 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Builder
 @Entity
+/** O índice (name, id) atende o findByName e a paginação por cursor do findByName */
+@Table(indexes = @Index(name = "idx_anime_name_id", columnList = "name, id"))
 public class Anime {
+    /**
+     * Com IDENTITY o Hibernate precisa executar cada INSERT na hora para descobrir o
+     * id, o que impede o batch de JDBC. Com a sequence (no MySQL o Hibernate a
+     * emula com a tabela anime_seq) os ids são reservados em blocos de 50 e os
+     * INSERTs podem ser agrupados.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "anime_seq")
+    @SequenceGenerator(name = "anime_seq", sequenceName = "anime_seq", allocationSize = 50)
     @Column
     private Long id;
 
     @Column
     @NotEmpty(message = "The anime name cannot be empty")
     private String name;
+
+    /**
+     * Incrementada pelo Hibernate a cada UPDATE, que só é aplicado se a versão no
+     * banco for a mesma lida antes (lock otimista). Também é a ETag do anime.
+     */
+    @Version
+    @Column
+    private Long version;
 }
@@ -1,29 +1,41 @@
 package academy.devdojo.springboot2.domain;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.HashSet;
+import java.util.Set;
 
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.Table;
 
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import academy.devdojo.springboot2.security.AuthoritySets;
+import academy.devdojo.springboot2.security.UserCacheInvalidationListener;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
 @Builder
+/** O username é único e indexado: o findByUsername roda em toda requisição autenticada */
+@Table(indexes = @Index(name = "ux_user_username", columnList = "username", unique = true))
+/** Invalida o cache de credenciais quando o usuário é alterado ou removido */
+@EntityListeners(UserCacheInvalidationListener.class)
 public class User implements UserDetails {
 
     @Id
@@ -37,12 +49,35 @@ public class User implements UserDetails {
     @Column
     private String username;
 
-    @Column
-    private String authorities;
+    /** As roles ficam na tabela user_role e são carregadas junto com o usuário (ver UserRepository) */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "user_role", joinColumns = @JoinColumn(name = "user_id"))
+    @Column(name = "role")
+    @Builder.Default
+    private Set<String> roles = new HashSet<>();
+
+    /** O modificador transient deixa o campo fora do mapeamento JPA e do equals/hashCode */
+    @ToString.Exclude
+    private transient Set<GrantedAuthority> grantedAuthorities;
 
+    /**
+     * O Spring Security chama esse método várias vezes por requisição. O conjunto
+     * é imutável e compartilhado entre todos os usuários com as mesmas roles, então
+     * depois da primeira chamada nada é alocado.
+     */
     @Override
-    public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Arrays.stream(authorities.split(",")).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+    public Set<GrantedAuthority> getAuthorities() {
+        Set<GrantedAuthority> authorities = this.grantedAuthorities;
+        if (authorities == null) {
+            authorities = AuthoritySets.of(this.roles);
+            this.grantedAuthorities = authorities;
+        }
+        return authorities;
+    }
+
+    public void setRoles(Set<String> roles) {
+        this.roles = roles;
+        this.grantedAuthorities = null;
     }
 
     @Override
@@ -5,9 +5,13 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /** Criando uma exceção exclusiva para badrequests */
 /** O status vai na anotação responseStatus */
+/**
+ * É um resultado esperado da API, não uma falha do código, então não preenche o
+ * stack trace: o RestExceptionHandler só usa a mensagem
+ */
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BadRequestException extends RuntimeException{
     public BadRequestException(String message){
-        super(message);
+        super(message, null, false, false);
     }
 }
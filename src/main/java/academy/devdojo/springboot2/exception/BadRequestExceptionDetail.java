@@ -1,9 +0,0 @@
-package academy.devdojo.springboot2.exception;
-
-import lombok.Getter;
-import lombok.experimental.SuperBuilder;
-
-@Getter
-@SuperBuilder
-public class BadRequestExceptionDetail extends ExceptionDetails {
-}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package academy.devdojo.springboot2.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** O recurso pedido não existe. Sem stack trace, como a BadRequestException */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class NotFoundException extends RuntimeException {
+    public NotFoundException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,12 @@
+package academy.devdojo.springboot2.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** O If-Match do cliente não corresponde mais à versão atual do recurso. Sem stack trace, como a BadRequestException */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message, null, false, false);
+    }
+}
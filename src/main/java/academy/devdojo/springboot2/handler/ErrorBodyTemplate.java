@@ -0,0 +1,111 @@
+package academy.devdojo.springboot2.handler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * Corpo de erro com o mesmo formato do ExceptionDetails (title, details,
+ * developerMessage, timestamp e status), mas montado a partir de bytes já
+ * serializados. Só o details muda entre as respostas de um mesmo tipo de erro, e
+ * o timestamp é formatado no máximo uma vez por segundo.
+ */
+final class ErrorBodyTemplate {
+
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static volatile Timestamp timestamp = new Timestamp(-1, new byte[0]);
+
+    private final HttpStatus status;
+    private final byte[] prefix;
+    private final byte[] middle;
+    private final byte[] suffix;
+    private volatile Details lastDetails = new Details(null, NULL);
+
+    ErrorBodyTemplate(HttpStatus status, String title, String developerMessage) {
+        this.status = status;
+        this.prefix = ("{\"title\":" + quote(title) + ",\"details\":").getBytes(StandardCharsets.UTF_8);
+        this.middle = (",\"developerMessage\":" + quote(developerMessage) + ",\"timestamp\":\"")
+                .getBytes(StandardCharsets.UTF_8);
+        this.suffix = ("\",\"status\":" + status.value() + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    ResponseEntity<byte[]> toResponse(String details) {
+        return ResponseEntity.status(this.status).contentType(MediaType.APPLICATION_JSON).body(this.toBytes(details));
+    }
+
+    byte[] toBytes(String details) {
+        byte[] detailsJson = this.detailsJson(details);
+        byte[] now = currentTimestamp();
+        byte[] body = new byte[this.prefix.length + detailsJson.length + this.middle.length + now.length
+                + this.suffix.length];
+        int offset = copy(this.prefix, body, 0);
+        offset = copy(detailsJson, body, offset);
+        offset = copy(this.middle, body, offset);
+        offset = copy(now, body, offset);
+        copy(this.suffix, body, offset);
+        return body;
+    }
+
+    /** A mensagem costuma ser sempre a mesma ("Anime not found"), então a última escapada é reaproveitada */
+    private byte[] detailsJson(String details) {
+        if (details == null) {
+            return NULL;
+        }
+        Details last = this.lastDetails;
+        if (details.equals(last.text)) {
+            return last.json;
+        }
+        byte[] json = quote(details).getBytes(StandardCharsets.UTF_8);
+        this.lastDetails = new Details(details, json);
+        return json;
+    }
+
+    private static byte[] currentTimestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        Timestamp current = timestamp;
+        if (current.second != second) {
+            byte[] formatted = TIMESTAMP_FORMAT.format(LocalDateTime.now()).getBytes(StandardCharsets.US_ASCII);
+            current = new Timestamp(second, formatted);
+            timestamp = current;
+        }
+        return current.formatted;
+    }
+
+    private static String quote(String text) {
+        return '"' + new String(ENCODER.quoteAsString(text)) + '"';
+    }
+
+    private static int copy(byte[] source, byte[] target, int offset) {
+        System.arraycopy(source, 0, target, offset, source.length);
+        return offset + source.length;
+    }
+
+    private static final class Timestamp {
+        private final long second;
+        private final byte[] formatted;
+
+        private Timestamp(long second, byte[] formatted) {
+            this.second = second;
+            this.formatted = formatted;
+        }
+    }
+
+    private static final class Details {
+        private final String text;
+        private final byte[] json;
+
+        private Details(String text, byte[] json) {
+            this.text = text;
+            this.json = json;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -15,26 +16,83 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import academy.devdojo.springboot2.exception.BadRequestException;
-import academy.devdojo.springboot2.exception.BadRequestExceptionDetail;
+import academy.devdojo.springboot2.exception.NotFoundException;
+import academy.devdojo.springboot2.exception.PreconditionFailedException;
 import academy.devdojo.springboot2.exception.ValidationExceptionDetail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /** Atravez dessa classe padronizamos as respostas de badrequests */
 /** A anotação @ControllerAdvice diz que todos os controllers devem seguir o padrão */
+/**
+ * Os erros esperados (400, 404 e 412) são respondidos com os bytes do
+ * ErrorBodyTemplate, sem passar pelo builder e pelo Jackson, e cada tipo de erro
+ * tem um contador "app.errors" para que uma rajada de erros apareça nas métricas.
+ */
 @ControllerAdvice
 public class RestExceptionHandler extends ResponseEntityExceptionHandler{
+    public static final String METRIC_NAME = "app.errors";
+
+    private final ErrorBodyTemplate badRequestBody = new ErrorBodyTemplate(HttpStatus.BAD_REQUEST,
+            "Bad Requests Exception, check the Documentation", BadRequestException.class.getName());
+    private final ErrorBodyTemplate notFoundBody = new ErrorBodyTemplate(HttpStatus.NOT_FOUND,
+            "Not Found, check the id", NotFoundException.class.getName());
+    private final ErrorBodyTemplate preconditionFailedBody = new ErrorBodyTemplate(HttpStatus.PRECONDITION_FAILED,
+            "Precondition Failed, fetch the anime again", PreconditionFailedException.class.getName());
+    private final ErrorBodyTemplate optimisticLockBody = new ErrorBodyTemplate(HttpStatus.PRECONDITION_FAILED,
+            "Precondition Failed, fetch the anime again", ObjectOptimisticLockingFailureException.class.getName());
+
+    private final Counter badRequestErrors;
+    private final Counter notFoundErrors;
+    private final Counter preconditionFailedErrors;
+    private final Counter optimisticLockErrors;
+    private final Counter validationErrors;
+
+    public RestExceptionHandler(MeterRegistry registry) {
+        this.badRequestErrors = errorCounter(registry, BadRequestException.class, HttpStatus.BAD_REQUEST);
+        this.notFoundErrors = errorCounter(registry, NotFoundException.class, HttpStatus.NOT_FOUND);
+        this.preconditionFailedErrors = errorCounter(registry, PreconditionFailedException.class, HttpStatus.PRECONDITION_FAILED);
+        this.optimisticLockErrors = errorCounter(registry, ObjectOptimisticLockingFailureException.class, HttpStatus.PRECONDITION_FAILED);
+        this.validationErrors = errorCounter(registry, MethodArgumentNotValidException.class, HttpStatus.BAD_REQUEST);
+    }
+
+    /** Os contadores são registrados uma vez; no caminho do erro sobra só o increment */
+    private static Counter errorCounter(MeterRegistry registry, Class<? extends Exception> type, HttpStatus status) {
+        return Counter.builder(METRIC_NAME)
+                .tag("type", type.getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(registry);
+    }
+
     /** A anotação @ExceptionHandler diz respeito a que tipo de handler estaremos construindo */
     @ExceptionHandler(BadRequestException.class)
-    public ResponseEntity<BadRequestExceptionDetail> handlerBadRequestException(BadRequestException bre){
-        return new ResponseEntity<>(
-            BadRequestExceptionDetail.builder()
-            .timestamp(LocalDateTime.now())
-            .status(HttpStatus.BAD_REQUEST.value())
-            .title("Bad Requests Exception, check the Documentation")
-            .details(bre.getMessage())
-            .developerMessage(bre.getClass().getName())
-            .build(), HttpStatus.BAD_REQUEST
-        );
-    }   
+    public ResponseEntity<byte[]> handlerBadRequestException(BadRequestException bre){
+        this.badRequestErrors.increment();
+        return this.badRequestBody.toResponse(bre.getMessage());
+    }
+
+    /** 404: o id pedido não existe */
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<byte[]> handlerNotFoundException(NotFoundException nfe){
+        this.notFoundErrors.increment();
+        return this.notFoundBody.toResponse(nfe.getMessage());
+    }
+
+    /**
+     * 412: o If-Match não bate com a versão atual, ou outra requisição alterou o
+     * anime entre a leitura e o UPDATE (lock otimista do @Version)
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<byte[]> handlerPreconditionFailedException(PreconditionFailedException pfe){
+        this.preconditionFailedErrors.increment();
+        return this.preconditionFailedBody.toResponse(pfe.getMessage());
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<byte[]> handlerOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex){
+        this.optimisticLockErrors.increment();
+        return this.optimisticLockBody.toResponse("The anime was modified by another request");
+    }
 
     /** Aquie estamaos validando os campos e entregando uma resposta customizada para esse erro */
     /** Método antigo */
@@ -59,6 +117,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler{
     /** Novo método sobrepondo o método específico */
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatus status, WebRequest request) {
+        this.validationErrors.increment();
         List<FieldError> fieldErrors = ex.getBindingResult().getFieldErrors();
         String fields = fieldErrors.stream().map(FieldError::getField).collect(Collectors.joining(", "));
         String fieldsMessage = fieldErrors.stream().map(FieldError::getDefaultMessage).collect(Collectors.joining(", "));
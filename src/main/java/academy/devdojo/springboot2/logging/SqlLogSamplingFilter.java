@@ -0,0 +1,72 @@
+package academy.devdojo.springboot2.logging;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Amostragem do log de SQL (org.hibernate.SQL), para que ele possa ficar ligado
+ * em produção. Apenas 1 a cada sampleRate comandos é escrito, e no máximo
+ * maxPerSecond por segundo. O limite por segundo é aproximado: threads que viram
+ * o segundo ao mesmo tempo podem deixar passar alguns a mais.
+ *
+ * Por ser um TurboFilter a decisão acontece antes de o evento de log ser criado,
+ * então um comando descartado não custa formatação nem vai para a fila do
+ * AsyncAppender. Configurado em logback-spring.xml.
+ */
+public class SqlLogSamplingFilter extends TurboFilter {
+
+    private String loggerName = "org.hibernate.SQL";
+    private int sampleRate = 100;
+    private int maxPerSecond = 10;
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicInteger writtenThisSecond = new AtomicInteger();
+    private volatile long currentSecond;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+            Throwable t) {
+        /** Sem format é só um isDebugEnabled(), que não deve contar como comando */
+        if (format == null || !logger.getName().startsWith(this.loggerName)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (this.statements.getAndIncrement() % this.sampleRate != 0) {
+            return FilterReply.DENY;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        if (second != this.currentSecond) {
+            this.currentSecond = second;
+            this.writtenThisSecond.set(0);
+        }
+        return this.writtenThisSecond.incrementAndGet() <= this.maxPerSecond ? FilterReply.NEUTRAL
+                : FilterReply.DENY;
+    }
+
+    @Override
+    public void start() {
+        if (this.sampleRate < 1 || this.maxPerSecond < 0) {
+            addError("sampleRate must be at least 1 and maxPerSecond cannot be negative");
+            return;
+        }
+        super.start();
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+}
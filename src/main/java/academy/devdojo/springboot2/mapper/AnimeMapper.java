@@ -6,6 +6,7 @@ import org.mapstruct.factory.Mappers;
 import academy.devdojo.springboot2.domain.Anime;
 import academy.devdojo.springboot2.requests.AnimePostRequestBody;
 import academy.devdojo.springboot2.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2.responses.AnimeResponse;
 
 @Mapper
 public interface AnimeMapper {
@@ -16,4 +17,6 @@ public interface AnimeMapper {
 
     public Anime toAnime(AnimePutRequestBody animeBody);
 
+    public AnimeResponse toAnimeResponse(Anime anime);
+
 }
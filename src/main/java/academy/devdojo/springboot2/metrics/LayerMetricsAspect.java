@@ -0,0 +1,109 @@
+package academy.devdojo.springboot2.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import academy.devdojo.springboot2.exception.PreconditionFailedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Mede o tempo de cada chamada ao AnimeController, aos @Service e aos
+ * repositórios, no timer app.calls. As tags são sempre as mesmas, para que as
+ * camadas possam ser comparadas no mesmo gráfico:
+ *
+ * layer: controller, service ou repository;
+ * class e method: onde o tempo foi gasto;
+ * outcome: SUCCESS, REDIRECTION (304), CLIENT_ERROR ou SERVER_ERROR, como no http.server.requests;
+ * exception: nome simples da exceção, ou "none".
+ *
+ * A contagem de cada timer é o contador de chamadas por resultado. Somando o
+ * tempo do controller e subtraindo o do service e dos repositórios sobra o custo
+ * da própria camada web (serialização, ETag...).
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class LayerMetricsAspect {
+
+    public static final String METRIC_NAME = "app.calls";
+
+    private final MeterRegistry registry;
+
+    @Around("within(academy.devdojo.springboot2.controller.AnimeController)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return this.time(joinPoint, "controller", targetName(joinPoint));
+    }
+
+    @Around("within(academy.devdojo.springboot2.service..*) && @within(org.springframework.stereotype.Service)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return this.time(joinPoint, "service", targetName(joinPoint));
+    }
+
+    /** O repositório é um proxy do Spring Data, então o nome vem da interface e não da classe */
+    @Around("target(academy.devdojo.springboot2.repository.AnimeRepository)")
+    public Object timeAnimeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return this.time(joinPoint, "repository", "AnimeRepository");
+    }
+
+    @Around("target(academy.devdojo.springboot2.repository.UserRepository)")
+    public Object timeUserRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return this.time(joinPoint, "repository", "UserRepository");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer, String className) throws Throwable {
+        Timer.Sample sample = Timer.start(this.registry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            this.stop(sample, layer, className, joinPoint, outcome(e), e.getClass().getSimpleName());
+            throw e;
+        }
+        this.stop(sample, layer, className, joinPoint, outcome(result), "none");
+        return result;
+    }
+
+    private void stop(Timer.Sample sample, String layer, String className, ProceedingJoinPoint joinPoint,
+            Outcome outcome, String exception) {
+        sample.stop(Timer.builder(METRIC_NAME)
+                .tag("layer", layer)
+                .tag("class", className)
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("outcome", outcome.name())
+                .tag("exception", exception)
+                .register(this.registry));
+    }
+
+    private static String targetName(ProceedingJoinPoint joinPoint) {
+        return ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName();
+    }
+
+    static Outcome outcome(Object result) {
+        return result instanceof ResponseEntity
+                ? Outcome.forStatus(((ResponseEntity<?>) result).getStatusCodeValue())
+                : Outcome.SUCCESS;
+    }
+
+    /** O mesmo status que o RestExceptionHandler (ou o @ResponseStatus) vai devolver */
+    static Outcome outcome(Throwable e) {
+        if (e instanceof ResponseStatusException) {
+            return Outcome.forStatus(((ResponseStatusException) e).getStatus().value());
+        }
+        if (e instanceof PreconditionFailedException || e instanceof ObjectOptimisticLockingFailureException) {
+            return Outcome.CLIENT_ERROR;
+        }
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        return responseStatus != null ? Outcome.forStatus(responseStatus.code().value()) : Outcome.SERVER_ERROR;
+    }
+}
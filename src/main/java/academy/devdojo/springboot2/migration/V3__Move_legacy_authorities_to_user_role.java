@@ -0,0 +1,49 @@
+package academy.devdojo.springboot2.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import academy.devdojo.springboot2.security.AuthoritySets;
+
+/**
+ * Move as roles do formato antigo (coluna authorities "ROLE_USER,ROLE_ADMIN")
+ * para a tabela user_role. Substitui o antigo LegacyAuthoritiesMigrator, que
+ * rodava a cada inicialização. O nome da classe segue o padrão do Flyway
+ * (V<versão>__<descrição>), que a encontra pelo spring.flyway.locations.
+ */
+public class V3__Move_legacy_authorities_to_user_role extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement select = connection.createStatement();
+                ResultSet users = select.executeQuery("select id, authorities from user where authorities is not null");
+                PreparedStatement existing = connection.prepareStatement("select role from user_role where user_id = ?");
+                PreparedStatement insert = connection.prepareStatement("insert into user_role (user_id, role) values (?, ?)")) {
+            while (users.next()) {
+                long userId = users.getLong("id");
+                Set<String> roles = new HashSet<>(AuthoritySets.split(users.getString("authorities")));
+                existing.setLong(1, userId);
+                try (ResultSet current = existing.executeQuery()) {
+                    while (current.next()) {
+                        roles.remove(current.getString("role"));
+                    }
+                }
+                for (String role : roles) {
+                    insert.setLong(1, userId);
+                    insert.setString(2, role);
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+}
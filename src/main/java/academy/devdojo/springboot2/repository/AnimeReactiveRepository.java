@@ -0,0 +1,60 @@
+package academy.devdojo.springboot2.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import academy.devdojo.springboot2.domain.Anime;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Consultas de leitura do anime pelo R2DBC. Nenhum método bloqueia: o resultado
+ * é emitido conforme as linhas chegam do banco. As consultas são as mesmas da
+ * listagem por cursor do AnimeRepository e usam os mesmos índices.
+ */
+@Repository
+@ConditionalOnProperty(name = "anime.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class AnimeReactiveRepository {
+
+    private final DatabaseClient animeDatabaseClient;
+
+    public Mono<Anime> findById(Long id) {
+        return this.animeDatabaseClient.execute("select id, name, version from anime where id = :id")
+                .bind("id", id)
+                .map(AnimeReactiveRepository::toAnime)
+                .one();
+    }
+
+    public Flux<Anime> findAfter(long afterId, int limit) {
+        return this.animeDatabaseClient
+                .execute("select id, name, version from anime where id > :afterId order by id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(AnimeReactiveRepository::toAnime)
+                .all();
+    }
+
+    public Flux<Anime> findByNameAfter(String name, long afterId, int limit) {
+        return this.animeDatabaseClient
+                .execute("select id, name, version from anime where name = :name and id > :afterId"
+                        + " order by id limit :limit")
+                .bind("name", name)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(AnimeReactiveRepository::toAnime)
+                .all();
+    }
+
+    private static Anime toAnime(Row row, RowMetadata metadata) {
+        return Anime.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
@@ -1,20 +1,79 @@
 package academy.devdojo.springboot2.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import academy.devdojo.springboot2.domain.Anime;
 
 /**
  * Local onde haverá as transações com o banco
  */
-public interface AnimeRepository extends JpaRepository<Anime, Long> {
+public interface AnimeRepository extends JpaRepository<Anime, Long>, AnimeStreamRepository {
 
     List<Anime> findByName(String name);
 
     Page<Anime> findByName(String name, Pageable pageable);
 
+    /** Retornando Slice o Spring Data não executa o SELECT COUNT(*), apenas busca um registro a mais */
+    Slice<Anime> findSliceBy(Pageable pageable);
+
+    Slice<Anime> findSliceByName(String name, Pageable pageable);
+
+    /** As mesmas consultas com a projeção AnimeSummary, usadas pelo parâmetro fields */
+    Slice<AnimeSummary> findSummarySliceBy(Pageable pageable);
+
+    Slice<AnimeSummary> findSummarySliceByName(String name, Pageable pageable);
+
+    long countByName(String name);
+
+    /** Apenas a versão, para responder If-None-Match sem carregar a entidade */
+    @Query("select a.version from Anime a where a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select a.name from Anime a where a.name in :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    /**
+     * Escritas em um único comando, sem SELECT antes: o número de linhas afetadas
+     * diz se o anime existia (e, nas versões com version, se ainda estava nela).
+     * A versão é incrementada como o @Version faria. Precisam de uma transação.
+     */
+    @Modifying
+    @Query("update Anime a set a.name = :name, a.version = a.version + 1 where a.id = :id")
+    int updateName(@Param("id") Long id, @Param("name") String name);
+
+    @Modifying
+    @Query("update Anime a set a.name = :name, a.version = a.version + 1 where a.id = :id and a.version = :version")
+    int updateNameIfVersion(@Param("id") Long id, @Param("name") String name, @Param("version") Long version);
+
+    @Modifying
+    @Query("delete from Anime a where a.id = :id")
+    int deleteByIdReturningCount(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Anime a where a.id = :id and a.version = :version")
+    int deleteByIdIfVersion(@Param("id") Long id, @Param("version") Long version);
+
+    /**
+     * Consultas da paginação por cursor (keyset). O Pageable é usado apenas como
+     * LIMIT: como o retorno é uma List nenhum COUNT é executado, e a busca parte
+     * sempre do último id visto em vez de pular registros com OFFSET.
+     */
+    List<Anime> findAllByOrderByIdAsc(Pageable limit);
+
+    List<Anime> findByIdGreaterThanOrderByIdAsc(Long id, Pageable limit);
+
+    List<Anime> findByNameOrderByIdAsc(String name, Pageable limit);
+
+    List<Anime> findByNameAndIdGreaterThanOrderByIdAsc(String name, Long id, Pageable limit);
+
 }
@@ -0,0 +1,23 @@
+package academy.devdojo.springboot2.repository;
+
+import java.util.stream.Stream;
+
+import academy.devdojo.springboot2.domain.Anime;
+
+/**
+ * Leituras da tabela inteira em streaming (exportação e carga do índice de busca).
+ * Ficam fora das consultas derivadas porque o fetch size depende do banco; veja
+ * AnimeStreamRepositoryImpl.
+ */
+public interface AnimeStreamRepository {
+
+    /**
+     * Lê a tabela inteira sem carregar tudo em memória: as linhas vêm do banco aos
+     * poucos e as entidades são somente leitura. Precisa ser consumido dentro de uma
+     * transação e fechado no final (try-with-resources).
+     */
+    Stream<Anime> streamAll();
+
+    /** Apenas id e nome, sem montar entidades: usado para carregar o índice de busca */
+    Stream<Object[]> streamIdAndName();
+}
@@ -0,0 +1,68 @@
+package academy.devdojo.springboot2.repository;
+
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.sql.DataSource;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import academy.devdojo.springboot2.domain.Anime;
+
+/**
+ * O fetch size vale só para os statements destas leituras. O driver do MySQL
+ * ignora um fetch size positivo (sem useCursorFetch na URL ele carrega o resultado
+ * inteiro); com Integer.MIN_VALUE ele entrega as linhas uma a uma. Nos outros
+ * bancos, como o H2 dos testes, que não aceitam valores negativos, são blocos de
+ * 1000 linhas. anime.export.fetch-size substitui o valor escolhido pelo banco.
+ *
+ * No MySQL a conexão fica ocupada até o stream ser fechado, então quem consome
+ * não pode fazer outras consultas na mesma transação.
+ */
+class AnimeStreamRepositoryImpl implements AnimeStreamRepository {
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final int fetchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    AnimeStreamRepositoryImpl(DataSource dataSource, @Value("${anime.export.fetch-size:}") Integer fetchSize) {
+        this.fetchSize = fetchSize != null ? fetchSize : defaultFetchSize(dataSource);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<Anime> streamAll() {
+        Query query = this.entityManager.createQuery("select a from Anime a order by a.id", Anime.class)
+                .setHint(QueryHints.HINT_READONLY, true);
+        return this.withFetchSize(query).getResultStream();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<Object[]> streamIdAndName() {
+        return this.withFetchSize(this.entityManager.createQuery("select a.id, a.name from Anime a")).getResultStream();
+    }
+
+    private Query withFetchSize(Query query) {
+        return query.setHint(QueryHints.HINT_FETCH_SIZE, this.fetchSize);
+    }
+
+    static int defaultFetchSize(DataSource dataSource) {
+        try {
+            String productName = JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName");
+            return DatabaseDriver.fromProductName(productName) == DatabaseDriver.MYSQL ? Integer.MIN_VALUE
+                    : DEFAULT_FETCH_SIZE;
+        } catch (MetaDataAccessException e) {
+            return DEFAULT_FETCH_SIZE;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package academy.devdojo.springboot2.repository;
+
+/**
+ * Projeção fechada do Anime: nas consultas que a retornam o Spring Data monta um
+ * SELECT só com id e name, e o Hibernate não cria nem gerencia entidades. No
+ * findByName o índice (name, id) já tem as duas colunas.
+ */
+public interface AnimeSummary {
+    Long getId();
+
+    String getName();
+}
@@ -1,11 +1,14 @@
 package academy.devdojo.springboot2.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import academy.devdojo.springboot2.domain.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /** O EntityGraph faz com que as roles venham no mesmo SELECT (join) do usuário */
+    @EntityGraph(attributePaths = "roles")
     public User findByUsername(String username);
-    
+
 }
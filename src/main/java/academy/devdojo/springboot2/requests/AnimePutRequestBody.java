@@ -1,9 +1,21 @@
 package academy.devdojo.springboot2.requests;
 
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
+/**
+ * O replace grava com um UPDATE direto, sem passar pela validação da entidade,
+ * então o corpo é validado aqui (@Valid no controller)
+ */
 @Data
 public class AnimePutRequestBody {
+    @NotNull(message = "O campo \"id\" não pode ser null")
+    @Schema(description = "Anime id", example = "1", required = true)
     private Long id;
+    @NotEmpty(message = "O campo \"nome\" não pode ser vazio")
+    @Schema(description = "Anime name", example = "Naruto", required = true)
     private String name;
 }
@@ -0,0 +1,17 @@
+package academy.devdojo.springboot2.requests;
+
+import javax.validation.constraints.NotEmpty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class LoginRequestBody {
+    @NotEmpty(message = "O campo \"username\" não pode ser vazio")
+    @Schema(description = "Username", example = "root", required = true)
+    private String username;
+
+    @NotEmpty(message = "O campo \"password\" não pode ser vazio")
+    @Schema(description = "Password", example = "root", required = true)
+    private String password;
+}
@@ -0,0 +1,18 @@
+package academy.devdojo.springboot2.responses;
+
+import java.util.List;
+
+import academy.devdojo.springboot2.domain.Anime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeBatchResponse {
+    /** Na ordem dos ids pedidos */
+    private List<Anime> animes;
+    /** Ids que não existem, também na ordem do pedido */
+    private List<Long> missing;
+}
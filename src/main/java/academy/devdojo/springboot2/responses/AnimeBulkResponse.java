@@ -0,0 +1,13 @@
+package academy.devdojo.springboot2.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeBulkResponse {
+    private int inserted;
+    private int chunks;
+}
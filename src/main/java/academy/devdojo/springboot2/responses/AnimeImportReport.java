@@ -0,0 +1,19 @@
+package academy.devdojo.springboot2.responses;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeImportReport {
+    private long accepted;
+    private long rejected;
+    private long duplicates;
+    private long chunks;
+    /** Apenas as primeiras mensagens de erro, com o número da linha */
+    private List<String> errors;
+}
@@ -0,0 +1,31 @@
+package academy.devdojo.springboot2.responses;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.Value;
+
+/**
+ * O que a API devolve de um anime. Separado da entidade para que o JSON não mude
+ * junto com o mapeamento do JPA e para que o Jackson serialize um objeto imutável
+ * com propriedades fixas. Com o parâmetro fields os campos não pedidos ficam null
+ * e não são escritos.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({ "id", "name", "version" })
+public class AnimeResponse {
+    Long id;
+    String name;
+    Long version;
+
+    @JsonCreator
+    public AnimeResponse(@JsonProperty("id") Long id, @JsonProperty("name") String name,
+            @JsonProperty("version") Long version) {
+        this.id = id;
+        this.name = name;
+        this.version = version;
+    }
+}
@@ -0,0 +1,15 @@
+package academy.devdojo.springboot2.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeSearchHit {
+    private Long id;
+    private String name;
+    /** Relevância: similaridade de trigramas mais o bônus de prefixo, maior é melhor */
+    private double score;
+}
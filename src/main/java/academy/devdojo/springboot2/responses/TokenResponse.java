@@ -0,0 +1,14 @@
+package academy.devdojo.springboot2.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenResponse {
+    private String token;
+    private String type;
+    private long expiresIn;
+}
@@ -0,0 +1,348 @@
+package academy.devdojo.springboot2.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+import org.springframework.stereotype.Component;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.responses.AnimeSearchHit;
+
+/**
+ * Índice invertido em memória sobre Anime.name, para buscas parciais e com erros
+ * de digitação sem LIKE '%x%' (que varre a tabela inteira).
+ *
+ * Cada nome é normalizado (minúsculas, sem acentos nem pontuação) e quebrado em
+ * trigramas; cada trigrama aponta para os nomes que o contêm. A relevância é a
+ * similaridade de Dice entre os trigramas da busca e os do nome, com bônus quando
+ * o nome ou uma de suas palavras começa com o texto buscado. As palavras ficam
+ * também em um mapa ordenado para achar prefixos curtos ("nar" → "naruto").
+ *
+ * Internamente cada anime recebe um número sequencial (ordinal), e as listas de
+ * postings guardam esses ints. Escritas (save/replace/delete) são raras, então um
+ * ReadWriteLock basta: as buscas só disputam entre si o read lock. Uma remoção só
+ * marca o ordinal como removido (tombstone); as listas de postings são limpas
+ * todas de uma vez quando os removidos passam de uma fração do índice.
+ *
+ * O índice é local a cada instância e só recebe as escritas feitas por ela. Com
+ * várias instâncias, o AnimeSearchIndexLoader reconstrói o índice a partir do
+ * banco periodicamente (anime.search.rebuild-interval-seconds).
+ */
+@Component
+public class AnimeSearchIndex {
+
+    /** Abaixo disso o nome é considerado diferente demais da busca */
+    private static final double MIN_SIMILARITY = 0.3;
+    private static final double EXACT_BOOST = 1.0;
+    private static final double PREFIX_BOOST = 0.5;
+    private static final double WORD_PREFIX_BOOST = 0.25;
+    /** Um prefixo de uma letra casaria com boa parte do catálogo */
+    private static final int MAX_PREFIX_CANDIDATES = 10_000;
+    /** Limpeza das postings quando os removidos chegam a 1/4 dos nomes vivos, e no mínimo a este número */
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+
+    /** Maior score primeiro; no empate o nome mais curto (mais próximo da busca) e depois o id */
+    private static final Comparator<AnimeSearchHit> RELEVANCE = Comparator
+            .comparingDouble(AnimeSearchHit::getScore).reversed()
+            .thenComparingInt(hit -> hit.getName().length())
+            .thenComparing(AnimeSearchHit::getId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, IntList> postings = new HashMap<>();
+    private NavigableMap<String, IntList> words = new TreeMap<>();
+    private Map<Long, Integer> ordinals = new HashMap<>();
+    private IntList freeOrdinals = new IntList();
+    /** Ordinais removidos que ainda aparecem nas postings; só são reutilizados depois da limpeza */
+    private IntList tombstones = new IntList();
+    /** Escritas recebidas durante um rebuild, reaplicadas no índice novo (nome null = remoção) */
+    private Map<Long, String> pendingWrites;
+    private long[] ids = new long[1024];
+    private String[] names = new String[1024];
+    private String[] normalizedNames = new String[1024];
+    private int[] gramCounts = new int[1024];
+    private int nextOrdinal;
+
+    public void index(Anime anime) {
+        this.index(anime.getId(), anime.getName());
+    }
+
+    /** Indexar um id já existente substitui o nome anterior */
+    public void index(Long id, String name) {
+        if (id == null || name == null) {
+            return;
+        }
+        String normalized = normalize(name);
+        Set<String> grams = trigrams(normalized);
+        this.lock.writeLock().lock();
+        try {
+            if (this.pendingWrites != null) {
+                this.pendingWrites.put(id, name);
+            }
+            this.removeOrdinal(id);
+            int ordinal = this.freeOrdinals.isEmpty() ? this.newOrdinal() : this.freeOrdinals.pop();
+            this.ids[ordinal] = id;
+            this.names[ordinal] = name;
+            this.normalizedNames[ordinal] = normalized;
+            this.gramCounts[ordinal] = grams.size();
+            grams.forEach(gram -> this.postings.computeIfAbsent(gram, key -> new IntList()).add(ordinal));
+            splitWords(normalized).forEach(word -> this.words.computeIfAbsent(word, key -> new IntList()).add(ordinal));
+            this.ordinals.put(id, ordinal);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        this.lock.writeLock().lock();
+        try {
+            if (this.pendingWrites != null) {
+                this.pendingWrites.put(id, null);
+            }
+            this.removeOrdinal(id);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.ordinals.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Monta um índice novo com o loader, sem bloquear as buscas, e troca o atual por
+     * ele. As escritas feitas enquanto o loader roda são guardadas e reaplicadas no
+     * índice novo, então nada do que esta instância gravou se perde na troca.
+     */
+    public void rebuild(Consumer<AnimeSearchIndex> loader) {
+        this.lock.writeLock().lock();
+        try {
+            if (this.pendingWrites != null) {
+                throw new IllegalStateException("The search index is already being rebuilt");
+            }
+            this.pendingWrites = new HashMap<>();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        AnimeSearchIndex rebuilt = new AnimeSearchIndex();
+        try {
+            loader.accept(rebuilt);
+        } catch (RuntimeException e) {
+            this.lock.writeLock().lock();
+            try {
+                this.pendingWrites = null;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        this.lock.writeLock().lock();
+        try {
+            this.pendingWrites.forEach((id, name) -> {
+                if (name == null) {
+                    rebuilt.remove(id);
+                } else {
+                    rebuilt.index(id, name);
+                }
+            });
+            this.pendingWrites = null;
+            this.postings = rebuilt.postings;
+            this.words = rebuilt.words;
+            this.ordinals = rebuilt.ordinals;
+            this.freeOrdinals = rebuilt.freeOrdinals;
+            this.tombstones = rebuilt.tombstones;
+            this.ids = rebuilt.ids;
+            this.names = rebuilt.names;
+            this.normalizedNames = rebuilt.normalizedNames;
+            this.gramCounts = rebuilt.gramCounts;
+            this.nextOrdinal = rebuilt.nextOrdinal;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /** Retorna no máximo limit resultados, do mais para o menos relevante */
+    public List<AnimeSearchHit> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Set<String> queryGrams = trigrams(normalized);
+        String lastWord = normalized.substring(normalized.lastIndexOf(' ') + 1);
+        this.lock.readLock().lock();
+        try {
+            /** Contagem de trigramas em comum por ordinal, só dos candidatos e sem boxing */
+            IntCounter shared = new IntCounter();
+            for (String gram : queryGrams) {
+                IntList ordinalList = this.postings.get(gram);
+                for (int i = 0; ordinalList != null && i < ordinalList.size(); i++) {
+                    int ordinal = ordinalList.get(i);
+                    if (this.isLive(ordinal)) {
+                        shared.add(ordinal, 1);
+                    }
+                }
+            }
+            Set<Integer> wordPrefixMatches = this.wordPrefixMatches(lastWord);
+            for (int ordinal : wordPrefixMatches) {
+                shared.add(ordinal, 0);
+            }
+
+            PriorityQueue<AnimeSearchHit> top = new PriorityQueue<>(limit + 1, RELEVANCE.reversed());
+            for (int i = 0; i < shared.size(); i++) {
+                int ordinal = shared.key(i);
+                double score = 2.0 * shared.get(ordinal) / (queryGrams.size() + this.gramCounts[ordinal]);
+                double boost = this.boost(ordinal, normalized, wordPrefixMatches);
+                if (score < MIN_SIMILARITY && boost == 0) {
+                    continue;
+                }
+                /** Só cria o objeto se ele entrar no top */
+                if (top.size() == limit && score + boost < top.peek().getScore()) {
+                    continue;
+                }
+                top.add(new AnimeSearchHit(this.ids[ordinal], this.names[ordinal], score + boost));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<AnimeSearchHit> hits = new ArrayList<>(top);
+            hits.sort(RELEVANCE);
+            return hits;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private double boost(int ordinal, String query, Set<Integer> wordPrefixMatches) {
+        String name = this.normalizedNames[ordinal];
+        if (name.equals(query)) {
+            return EXACT_BOOST;
+        }
+        if (name.startsWith(query)) {
+            return PREFIX_BOOST;
+        }
+        return wordPrefixMatches.contains(ordinal) ? WORD_PREFIX_BOOST : 0;
+    }
+
+    private Set<Integer> wordPrefixMatches(String prefix) {
+        Set<Integer> matches = new LinkedHashSet<>();
+        for (IntList ordinalList : this.words.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+            for (int i = 0; i < ordinalList.size(); i++) {
+                if (matches.size() == MAX_PREFIX_CANDIDATES) {
+                    return matches;
+                }
+                if (this.isLive(ordinalList.get(i))) {
+                    matches.add(ordinalList.get(i));
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void removeOrdinal(Long id) {
+        Integer ordinal = this.ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        this.names[ordinal] = null;
+        this.normalizedNames[ordinal] = null;
+        this.tombstones.add(ordinal);
+        if (this.tombstones.size() >= Math.max(MIN_TOMBSTONES_TO_COMPACT, this.ordinals.size() / 4)) {
+            this.compact();
+        }
+    }
+
+    private boolean isLive(int ordinal) {
+        return this.names[ordinal] != null;
+    }
+
+    /**
+     * Tira os ordinais removidos de todas as postings em uma passada, O(postings),
+     * diluída entre as remoções que a provocaram. Só então eles podem ser
+     * reutilizados sem que postings antigas apontem para outro anime.
+     */
+    private void compact() {
+        boolean[] removed = new boolean[this.nextOrdinal];
+        for (int i = 0; i < this.tombstones.size(); i++) {
+            removed[this.tombstones.get(i)] = true;
+        }
+        IntPredicate isRemoved = ordinal -> removed[ordinal];
+        purge(this.postings, isRemoved);
+        purge(this.words, isRemoved);
+        while (!this.tombstones.isEmpty()) {
+            this.freeOrdinals.add(this.tombstones.pop());
+        }
+    }
+
+    private static void purge(Map<String, IntList> map, IntPredicate isRemoved) {
+        map.values().removeIf(ordinalList -> {
+            ordinalList.removeIf(isRemoved);
+            return ordinalList.isEmpty();
+        });
+    }
+
+    private int newOrdinal() {
+        if (this.nextOrdinal == this.ids.length) {
+            int capacity = this.ids.length * 2;
+            this.ids = Arrays.copyOf(this.ids, capacity);
+            this.names = Arrays.copyOf(this.names, capacity);
+            this.normalizedNames = Arrays.copyOf(this.normalizedNames, capacity);
+            this.gramCounts = Arrays.copyOf(this.gramCounts, capacity);
+        }
+        return this.nextOrdinal++;
+    }
+
+    /** "Kimetsu no Yaiba: Mugen-Ressha" → "kimetsu no yaiba mugen ressha" */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /** O texto recebe espaços nas pontas para que início e fim tenham trigramas próprios */
+    static Set<String> trigrams(String normalized) {
+        String padded = "  " + normalized + " ";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static Set<String> splitWords(String normalized) {
+        return new LinkedHashSet<>(Arrays.asList(normalized.split(" ")));
+    }
+}
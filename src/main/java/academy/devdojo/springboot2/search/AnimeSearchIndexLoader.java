@@ -0,0 +1,82 @@
+package academy.devdojo.springboot2.search;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import academy.devdojo.springboot2.repository.AnimeRepository;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Carrega o AnimeSearchIndex na inicialização lendo apenas id e nome, em
+ * streaming. Depois disso o índice é mantido pelo AnimeService a cada escrita.
+ *
+ * O AnimeService só vê as escritas desta instância. Com rebuild-interval-seconds
+ * maior que zero o índice é reconstruído do banco nesse intervalo, e as escritas
+ * das outras instâncias aparecem na busca com esse atraso.
+ */
+@Log4j2
+@Component
+public class AnimeSearchIndexLoader implements DisposableBean {
+
+    private final AnimeRepository repository;
+    private final AnimeSearchIndex searchIndex;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final long rebuildIntervalSeconds;
+    private final ScheduledExecutorService scheduler;
+
+    public AnimeSearchIndexLoader(AnimeRepository repository, AnimeSearchIndex searchIndex,
+            PlatformTransactionManager transactionManager,
+            @Value("${anime.search.rebuild-interval-seconds:0}") long rebuildIntervalSeconds) {
+        this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.rebuildIntervalSeconds = rebuildIntervalSeconds;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("anime-search-"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        this.rebuild();
+        if (this.rebuildIntervalSeconds > 0) {
+            this.scheduler.scheduleWithFixedDelay(this::rebuildQuietly, this.rebuildIntervalSeconds,
+                    this.rebuildIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        this.searchIndex.rebuild(index -> this.readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = this.repository.streamIdAndName()) {
+                rows.forEach(row -> index.index((Long) row[0], (String) row[1]));
+            }
+        }));
+        log.info("Anime search index loaded with {} names in {} ms", this.searchIndex.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Uma exceção cancelaria as próximas execuções; o índice atual continua valendo até a próxima */
+    private void rebuildQuietly() {
+        try {
+            this.rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Anime search index rebuild failed", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.scheduler.shutdownNow();
+    }
+}
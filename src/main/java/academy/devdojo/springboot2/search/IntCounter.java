@@ -0,0 +1,83 @@
+package academy.devdojo.springboot2.search;
+
+import java.util.Arrays;
+
+/**
+ * Contador int → int com endereçamento aberto, usado pela busca para somar os
+ * trigramas em comum de cada ordinal. A memória é proporcional aos candidatos da
+ * busca, e não ao tamanho do índice como um int[] por ordinal. As chaves são
+ * percorridas na ordem em que apareceram. Só aceita chaves >= 0.
+ */
+class IntCounter {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] counts;
+    private final IntList insertionOrder = new IntList();
+
+    IntCounter() {
+        this.allocate(64);
+    }
+
+    /** Soma delta ao contador da chave; com delta 0 a chave passa a existir com contagem 0 */
+    void add(int key, int delta) {
+        int slot = this.slot(key);
+        if (this.keys[slot] == EMPTY) {
+            this.keys[slot] = key;
+            this.insertionOrder.add(key);
+            if (this.insertionOrder.size() * 2 > this.keys.length) {
+                this.resize();
+                slot = this.slot(key);
+            }
+        }
+        this.counts[slot] += delta;
+    }
+
+    int get(int key) {
+        int slot = this.slot(key);
+        return this.keys[slot] == EMPTY ? 0 : this.counts[slot];
+    }
+
+    boolean contains(int key) {
+        return this.keys[this.slot(key)] != EMPTY;
+    }
+
+    int size() {
+        return this.insertionOrder.size();
+    }
+
+    int key(int index) {
+        return this.insertionOrder.get(index);
+    }
+
+    /** Posição da chave ou a posição vazia onde ela entraria */
+    private int slot(int key) {
+        int mask = this.keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (this.keys[slot] != EMPTY && this.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        int[] oldKeys = this.keys;
+        int[] oldCounts = this.counts;
+        this.allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = this.slot(oldKeys[i]);
+                this.keys[slot] = oldKeys[i];
+                this.counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.counts = new int[capacity];
+        Arrays.fill(this.keys, EMPTY);
+    }
+}
@@ -0,0 +1,49 @@
+package academy.devdojo.springboot2.search;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Lista de int sem boxing, usada nas listas de postings do índice. Com 1 milhão de
+ * nomes são dezenas de milhões de entradas, então um List<Integer> ocuparia
+ * várias vezes mais memória.
+ */
+class IntList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        this.values[this.size++] = value;
+    }
+
+    /** Remove de uma vez todos os valores que atendem ao filtro, em uma passada e mantendo a ordem */
+    void removeIf(IntPredicate filter) {
+        int kept = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (!filter.test(this.values[i])) {
+                this.values[kept++] = this.values[i];
+            }
+        }
+        this.size = kept;
+    }
+
+    int pop() {
+        return this.values[--this.size];
+    }
+
+    int get(int index) {
+        return this.values[index];
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+}
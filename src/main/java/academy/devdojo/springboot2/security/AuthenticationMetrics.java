@@ -0,0 +1,39 @@
+package academy.devdojo.springboot2.security;
+
+import java.util.function.Supplier;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Timer security.authentication: quanto tempo cada requisição gasta para ser
+ * autenticada. A tag method separa httpBasic (basic, inclui o cache de
+ * credenciais e, na falta dele, o SELECT e o bcrypt) do token (token, apenas o
+ * HMAC). A tag outcome é success ou failure.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthenticationMetrics {
+
+    public static final String METRIC_NAME = "security.authentication";
+
+    private final MeterRegistry registry;
+
+    public Authentication record(String method, Supplier<Authentication> authentication) {
+        Timer.Sample sample = Timer.start(this.registry);
+        Authentication result = null;
+        try {
+            result = authentication.get();
+            return result;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .tag("method", method)
+                    .tag("outcome", result != null && result.isAuthenticated() ? "success" : "failure")
+                    .register(this.registry));
+        }
+    }
+}
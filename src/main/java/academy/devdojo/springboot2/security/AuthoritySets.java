@@ -0,0 +1,46 @@
+package academy.devdojo.springboot2.security;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Guarda uma única instância imutável para cada combinação de roles.
+ * O número de combinações é pequeno (USER, ADMIN, USER+ADMIN...), então o mapa
+ * não precisa de limite.
+ */
+public final class AuthoritySets {
+
+    private static final ConcurrentMap<Set<String>, Set<GrantedAuthority>> SETS = new ConcurrentHashMap<>();
+
+    private AuthoritySets() {
+    }
+
+    public static Set<GrantedAuthority> of(Collection<String> roles) {
+        return SETS.computeIfAbsent(Set.copyOf(roles), AuthoritySets::create);
+    }
+
+    /** Converte o formato antigo "ROLE_USER,ROLE_ADMIN" */
+    public static Set<GrantedAuthority> parse(String roles) {
+        return of(split(roles));
+    }
+
+    public static Set<String> split(String roles) {
+        return Arrays.stream(roles.split(",")).map(String::trim).filter(role -> !role.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<GrantedAuthority> create(Set<String> roles) {
+        Set<GrantedAuthority> authorities = roles.stream().sorted().map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return Collections.unmodifiableSet(authorities);
+    }
+}
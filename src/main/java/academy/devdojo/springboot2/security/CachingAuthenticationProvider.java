@@ -0,0 +1,49 @@
+package academy.devdojo.springboot2.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import academy.devdojo.springboot2.security.CredentialCache.VerifiedCredential;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Fica na frente do provider que consulta o banco e verifica o bcrypt.
+ * Só as autenticações bem sucedidas são guardadas, então uma senha errada
+ * sempre passa pelo fluxo completo.
+ */
+@RequiredArgsConstructor
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final CredentialCache credentialCache;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (username == null || !(credentials instanceof String)) {
+            return this.delegate.authenticate(authentication);
+        }
+
+        VerifiedCredential cached = this.credentialCache.get(username, (String) credentials);
+        if (cached != null) {
+            UsernamePasswordAuthenticationToken result = new UsernamePasswordAuthenticationToken(
+                    cached.getPrincipal(), credentials, cached.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        Authentication result = this.delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            this.credentialCache.put(username, (String) credentials, result.getPrincipal(), result.getAuthorities());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return this.delegate.supports(authentication);
+    }
+}
@@ -0,0 +1,88 @@
+package academy.devdojo.springboot2.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cache das credenciais já verificadas (usuário + digest da senha).
+ * Evita que o SELECT do usuário e a verificação do bcrypt sejam refeitos a cada
+ * requisição do httpBasic. A senha em texto nunca é armazenada, apenas um
+ * SHA-256 com um salt aleatório gerado na inicialização.
+ * As métricas ficam disponíveis no actuator como cache.gets, cache.evictions e etc.
+ */
+@Component
+public class CredentialCache {
+
+    private final Cache<String, VerifiedCredential> cache;
+    private final byte[] salt = new byte[32];
+
+    public CredentialCache(MeterRegistry registry,
+            @Value("${security.credential-cache.maximum-size:10000}") long maximumSize,
+            @Value("${security.credential-cache.ttl-seconds:300}") long ttlSeconds) {
+        new SecureRandom().nextBytes(this.salt);
+        this.cache = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build(), "credentials");
+    }
+
+    /** Retorna o usuário verificado caso o digest da senha informada seja o mesmo do cache */
+    public VerifiedCredential get(String username, String password) {
+        VerifiedCredential credential = this.cache.getIfPresent(username);
+        if (credential == null) {
+            return null;
+        }
+        return MessageDigest.isEqual(credential.getDigest(), this.digest(username, password)) ? credential : null;
+    }
+
+    public void put(String username, String password, Object principal,
+            Collection<? extends GrantedAuthority> authorities) {
+        this.cache.put(username, new VerifiedCredential(this.digest(username, password), principal, authorities));
+    }
+
+    public void invalidate(String username) {
+        this.cache.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(this.salt);
+            sha256.update(username.getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) 0);
+            sha256.update(password.getBytes(StandardCharsets.UTF_8));
+            return sha256.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class VerifiedCredential {
+        private final byte[] digest;
+        private final Object principal;
+        private final Collection<? extends GrantedAuthority> authorities;
+    }
+}
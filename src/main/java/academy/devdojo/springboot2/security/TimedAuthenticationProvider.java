@@ -0,0 +1,25 @@
+package academy.devdojo.springboot2.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import lombok.RequiredArgsConstructor;
+
+/** Registra o tempo da autenticação httpBasic (ver AuthenticationMetrics) */
+@RequiredArgsConstructor
+public class TimedAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AuthenticationMetrics metrics;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        return this.metrics.record("basic", () -> this.delegate.authenticate(authentication));
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return this.delegate.supports(authentication);
+    }
+}
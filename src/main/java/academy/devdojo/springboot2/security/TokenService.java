@@ -0,0 +1,103 @@
+package academy.devdojo.springboot2.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Emite e valida tokens assinados localmente com HMAC-SHA256.
+ * Formato: base64url(username \n expiração \n authorities) + "." + base64url(assinatura)
+ * A validação não acessa o banco: tudo o que é preciso está no próprio token.
+ */
+@Log4j2
+@Component
+public class TokenService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    @Getter
+    private final long ttlSeconds;
+    /** O Mac não é thread-safe, então cada thread tem a sua instância */
+    private final ThreadLocal<Mac> mac;
+
+    public TokenService(@Value("${security.token.secret:}") String secret,
+            @Value("${security.token.ttl-seconds:3600}") long ttlSeconds) {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length == 0) {
+            log.warn("security.token.secret not set, using a random secret (tokens will not survive a restart)");
+            secretBytes = new byte[32];
+            new SecureRandom().nextBytes(secretBytes);
+        }
+        this.key = new SecretKeySpec(secretBytes, HMAC_ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(Authentication authentication) {
+        long expiresAt = Instant.now().getEpochSecond() + this.ttlSeconds;
+        String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String payload = ENCODER.encodeToString(String.join("\n", authentication.getName(), Long.toString(expiresAt),
+                authorities).getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(this.sign(payload));
+    }
+
+    /** Retorna null caso o token seja inválido ou esteja expirado */
+    public Authentication parse(String token) {
+        int separator = token.indexOf('.');
+        if (separator <= 0) {
+            return null;
+        }
+        String payload = token.substring(0, separator);
+        try {
+            byte[] signature = DECODER.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, this.sign(payload))) {
+                return null;
+            }
+            String[] claims = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\n", -1);
+            if (claims.length != 3 || Long.parseLong(claims[1]) < Instant.now().getEpochSecond()) {
+                return null;
+            }
+            Set<GrantedAuthority> authorities = AuthoritySets.parse(claims[2]);
+            User principal = new User(claims[0], "", authorities);
+            return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return this.mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+            instance.init(this.key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
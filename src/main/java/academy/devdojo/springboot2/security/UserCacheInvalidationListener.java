@@ -0,0 +1,31 @@
+package academy.devdojo.springboot2.security;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import academy.devdojo.springboot2.domain.User;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Listener JPA do User. O Hibernate instancia essa classe através do Spring, por
+ * isso podemos injetar dependências. O ObjectProvider é usado porque em alguns
+ * contextos (ex: @DataJpaTest) o CredentialCache não existe.
+ */
+@RequiredArgsConstructor
+public class UserCacheInvalidationListener {
+
+    private final ObjectProvider<CredentialCache> credentialCache;
+
+    /** O username pode ter sido alterado, então não temos como saber qual era a chave antiga */
+    @PostUpdate
+    public void onUpdate(User user) {
+        this.credentialCache.ifAvailable(CredentialCache::invalidateAll);
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        this.credentialCache.ifAvailable(cache -> cache.invalidate(user.getUsername()));
+    }
+}
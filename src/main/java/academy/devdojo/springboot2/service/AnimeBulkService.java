@@ -0,0 +1,170 @@
+package academy.devdojo.springboot2.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.exception.BadRequestException;
+import academy.devdojo.springboot2.mapper.AnimeMapper;
+import academy.devdojo.springboot2.repository.AnimeRepository;
+import academy.devdojo.springboot2.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2.responses.AnimeBulkResponse;
+import academy.devdojo.springboot2.search.AnimeSearchIndex;
+
+/**
+ * Operações em massa do catálogo. Os INSERTs são agrupados em batches de JDBC
+ * (hibernate.jdbc.batch_size) e cada chunk é uma transação, para que nem o
+ * contexto de persistência nem a memória cresçam com o tamanho da lista.
+ */
+@Service
+public class AnimeBulkService {
+
+    private static final int MAX_REPORTED_ERRORS = 10;
+    private static final int EXPORT_CLEAR_INTERVAL = 1000;
+
+    private final AnimeRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectWriter ndjsonWriter;
+    private final Validator validator;
+    private final AnimeCache cache;
+    private final AnimeCounter counter;
+    private final AnimeSearchIndex searchIndex;
+    private final int chunkSize;
+    private final int maximumSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AnimeBulkService(AnimeRepository repository, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+            Validator validator, AnimeCache cache, AnimeCounter counter, AnimeSearchIndex searchIndex,
+            @Value("${anime.bulk.chunk-size:500}") int chunkSize,
+            @Value("${anime.bulk.maximum-size:100000}") int maximumSize) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        /** Uma linha por anime, sem flush a cada linha e sem fechar o stream da resposta */
+        this.ndjsonWriter = objectMapper.writerFor(Anime.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.validator = validator;
+        this.cache = cache;
+        this.counter = counter;
+        this.searchIndex = searchIndex;
+        this.chunkSize = chunkSize;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Todos os itens são validados antes de qualquer INSERT. Cada chunk é gravado em
+     * sua própria transação e, depois do commit, entra no cache, nos contadores e no
+     * índice de busca; as entidades do chunk são descartadas em seguida, então a
+     * memória não cresce com o tamanho da lista. Se um chunk falhar no banco, os
+     * anteriores continuam gravados.
+     */
+    public AnimeBulkResponse saveAll(List<AnimePostRequestBody> animeBodies) {
+        if (animeBodies.isEmpty() || animeBodies.size() > this.maximumSize) {
+            throw new BadRequestException("The list must have between 1 and " + this.maximumSize + " animes");
+        }
+        this.validate(animeBodies);
+
+        int inserted = 0;
+        int chunks = 0;
+        for (int from = 0; from < animeBodies.size(); from += this.chunkSize) {
+            List<AnimePostRequestBody> chunk = animeBodies.subList(from,
+                    Math.min(from + this.chunkSize, animeBodies.size()));
+            List<Anime> saved = this.transactionTemplate.execute(status -> this.insertChunk(chunk));
+            /** Só depois do commit o cache e os contadores são atualizados; o cache por nome em uma passada por chunk */
+            Set<String> names = new HashSet<>();
+            saved.forEach(anime -> {
+                names.add(anime.getName());
+                this.counter.added(anime.getName());
+                this.searchIndex.index(anime);
+            });
+            this.cache.evictNames(names);
+            inserted += saved.size();
+            chunks++;
+        }
+        return new AnimeBulkResponse(inserted, chunks);
+    }
+
+    private List<Anime> insertChunk(List<AnimePostRequestBody> chunk) {
+        List<Anime> saved = new ArrayList<>(chunk.size());
+        for (AnimePostRequestBody animeBody : chunk) {
+            Anime anime = AnimeMapper.INSTANCE.toAnime(animeBody);
+            this.entityManager.persist(anime);
+            saved.add(anime);
+        }
+        return saved;
+    }
+
+    private void validate(List<AnimePostRequestBody> animeBodies) {
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < animeBodies.size() && errors.size() < MAX_REPORTED_ERRORS; i++) {
+            if (animeBodies.get(i) == null) {
+                errors.add("[" + i + "] The anime cannot be null");
+                continue;
+            }
+            Set<ConstraintViolation<AnimePostRequestBody>> violations = this.validator.validate(animeBodies.get(i));
+            if (!violations.isEmpty()) {
+                errors.add("[" + i + "] " + violations.stream().map(ConstraintViolation::getMessage)
+                        .collect(Collectors.joining(", ")));
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new BadRequestException(String.join("; ", errors));
+        }
+    }
+
+    /**
+     * Escreve o catálogo inteiro em NDJSON (um JSON por linha) direto no stream da
+     * resposta. As linhas são lidas do banco conforme são escritas e o contexto de
+     * persistência é limpo periodicamente, então a memória não depende do tamanho
+     * da tabela.
+     */
+    public void exportTo(OutputStream out) {
+        this.readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Anime> animes = this.repository.streamAll();
+                    SequenceWriter sequenceWriter = this.ndjsonWriter.writeValues(out)) {
+                long written = 0;
+                for (Iterator<Anime> iterator = animes.iterator(); iterator.hasNext();) {
+                    sequenceWriter.write(iterator.next());
+                    if (++written % EXPORT_CLEAR_INTERVAL == 0) {
+                        this.entityManager.clear();
+                    }
+                }
+                sequenceWriter.flush();
+                if (written > 0) {
+                    out.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package academy.devdojo.springboot2.service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import academy.devdojo.springboot2.domain.Anime;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cache de leitura (read-through) das consultas do AnimeService.
+ * Os resultados vazios ("Anime not found" e páginas vazias) também são guardados,
+ * mas por um tempo bem menor. As métricas (cache.gets, cache.load.duration,
+ * cache.evictions...) ficam no actuator com os nomes anime.by-id e anime.by-name.
+ */
+@Component
+public class AnimeCache {
+
+    private final Cache<Long, Optional<Anime>> byId;
+    private final Cache<NameKey, Page<Anime>> byName;
+
+    public AnimeCache(MeterRegistry registry,
+            @Value("${anime.cache.maximum-size:10000}") long maximumSize,
+            @Value("${anime.cache.by-name-maximum-size:1000}") long byNameMaximumSize,
+            @Value("${anime.cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${anime.cache.negative-ttl-seconds:10}") long negativeTtlSeconds) {
+        long ttl = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        long negativeTtl = TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+        this.byId = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ResultExpiry<Long, Optional<Anime>>(ttl, negativeTtl, Optional::isEmpty))
+                .recordStats()
+                .build(), "anime.by-id");
+        this.byName = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(byNameMaximumSize)
+                .expireAfter(new ResultExpiry<NameKey, Page<Anime>>(ttl, negativeTtl, Page::isEmpty))
+                .recordStats()
+                .build(), "anime.by-name");
+    }
+
+    public Optional<Anime> findById(Long id, Function<Long, Optional<Anime>> loader) {
+        return this.byId.get(id, loader);
+    }
+
+    /**
+     * Vários ids de uma vez: os que não estão em cache são entregues juntos ao
+     * loader, que deve devolver um Optional vazio para os que não existem.
+     */
+    public Map<Long, Optional<Anime>> findAllById(Iterable<Long> ids,
+            Function<Iterable<? extends Long>, Map<Long, Optional<Anime>>> loader) {
+        return this.byId.getAll(ids, loader);
+    }
+
+    public Page<Anime> findByName(String name, Pageable pageable, Supplier<Page<Anime>> loader) {
+        return this.byName.get(new NameKey(name, pageable), key -> loader.get());
+    }
+
+    public void put(Anime anime) {
+        this.byId.put(anime.getId(), Optional.of(anime));
+    }
+
+    public void evict(Long id) {
+        this.byId.invalidate(id);
+    }
+
+    /** Nome do anime se ele estiver em cache, sem carregar do banco; null caso contrário */
+    public String cachedName(Long id) {
+        Optional<Anime> anime = this.byId.getIfPresent(id);
+        return anime == null ? null : anime.map(Anime::getName).orElse(null);
+    }
+
+    /** Usado quando o nome antigo de um anime alterado não é conhecido */
+    public void evictAllNames() {
+        this.byName.invalidateAll();
+    }
+
+    /** Remove todas as páginas em cache de um nome, independente da paginação */
+    public void evictName(String name) {
+        this.byName.asMap().keySet().removeIf(key -> Objects.equals(key.getName(), name));
+    }
+
+    /** Como o evictName para vários nomes, mas percorrendo o cache uma única vez */
+    public void evictNames(Set<String> names) {
+        if (!names.isEmpty()) {
+            this.byName.asMap().keySet().removeIf(key -> names.contains(key.getName()));
+        }
+    }
+
+    @Data
+    private static class NameKey {
+        private final String name;
+        private final Pageable pageable;
+    }
+
+    /** Define o TTL de cada entrada de acordo com o resultado (encontrado ou vazio) */
+    @RequiredArgsConstructor
+    private static class ResultExpiry<K, V> implements Expiry<K, V> {
+        private final long ttl;
+        private final long negativeTtl;
+        private final Predicate<V> isEmpty;
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return this.isEmpty.test(value) ? this.negativeTtl : this.ttl;
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return this.expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package academy.devdojo.springboot2.service;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import academy.devdojo.springboot2.repository.AnimeRepository;
+
+/**
+ * Mantém o total de animes (e o total por nome) em memória para que as páginas
+ * não precisem de um SELECT COUNT(*) a cada requisição. O valor é carregado do
+ * banco na primeira consulta e depois atualizado pelo save/delete/replace.
+ * Como outras instâncias da aplicação também escrevem no banco, cada contador é
+ * recarregado depois do TTL.
+ */
+@Component
+public class AnimeCounter {
+
+    /** Optional.empty() é a chave do total geral; Optional.of(nome) é o total de um nome */
+    private final Cache<Optional<String>, AtomicLong> counts;
+    private final AnimeRepository repository;
+
+    public AnimeCounter(AnimeRepository repository,
+            @Value("${anime.count.maximum-size:1000}") long maximumSize,
+            @Value("${anime.count.ttl-seconds:60}") long ttlSeconds) {
+        this.repository = repository;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public long total() {
+        return this.counts.get(Optional.empty(), key -> new AtomicLong(this.repository.count())).get();
+    }
+
+    public long byName(String name) {
+        return this.counts.get(Optional.of(name), key -> new AtomicLong(this.repository.countByName(name))).get();
+    }
+
+    public void added(String name) {
+        this.add(Optional.empty(), 1);
+        this.add(name, 1);
+    }
+
+    /** Com o nome desconhecido (null) o total geral continua exato, mas os totais por nome são descartados */
+    public void removed(String name) {
+        this.add(Optional.empty(), -1);
+        if (name == null) {
+            this.invalidateNames();
+        }
+        this.add(name, -1);
+    }
+
+    public void renamed(String oldName, String newName) {
+        if (oldName == null) {
+            this.invalidateNames();
+        } else if (!Objects.equals(oldName, newName)) {
+            this.add(oldName, -1);
+            this.add(newName, 1);
+        }
+    }
+
+    private void invalidateNames() {
+        this.counts.asMap().keySet().removeIf(Optional::isPresent);
+    }
+
+    private void add(String name, long delta) {
+        if (name != null) {
+            this.add(Optional.of(name), delta);
+        }
+    }
+
+    /** Contadores que ainda não foram carregados não são criados aqui, serão lidos do banco quando preciso */
+    private void add(Optional<String> key, long delta) {
+        AtomicLong count = this.counts.getIfPresent(key);
+        if (count != null) {
+            count.addAndGet(delta);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package academy.devdojo.springboot2.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.exception.BadRequestException;
+import academy.devdojo.springboot2.mapper.AnimeMapper;
+import academy.devdojo.springboot2.repository.AnimeRepository;
+import academy.devdojo.springboot2.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2.responses.AnimeImportReport;
+import academy.devdojo.springboot2.search.AnimeSearchIndex;
+
+/**
+ * Importação de arquivos NDJSON ou CSV de qualquer tamanho.
+ *
+ * A thread da requisição lê o corpo linha a linha, valida e monta chunks. Uma
+ * thread de escrita grava cada chunk em sua própria transação. As duas trabalham
+ * ao mesmo tempo, ligadas por uma fila pequena: quando o banco fica para trás a
+ * leitura espera (backpressure), então a memória usada é de poucos chunks.
+ * O número de importações simultâneas é limitado para que as threads de escrita
+ * não ocupem o pool de conexões inteiro.
+ */
+@Service
+public class AnimeImportService implements DisposableBean {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    /** Marca o fim da leitura na fila */
+    private static final List<AnimePostRequestBody> END = Collections.emptyList();
+
+    private final AnimeRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader ndjsonReader;
+    private final Validator validator;
+    private final AnimeCache cache;
+    private final AnimeCounter counter;
+    private final AnimeSearchIndex searchIndex;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final Semaphore permits;
+    private final ExecutorService writers;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AnimeImportService(AnimeRepository repository, TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper, Validator validator, AnimeCache cache, AnimeCounter counter,
+            AnimeSearchIndex searchIndex,
+            @Value("${anime.import.chunk-size:1000}") int chunkSize,
+            @Value("${anime.import.queue-capacity:2}") int queueCapacity,
+            @Value("${anime.import.maximum-concurrent:2}") int maximumConcurrent) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.ndjsonReader = objectMapper.readerFor(AnimePostRequestBody.class);
+        this.validator = validator;
+        this.cache = cache;
+        this.counter = counter;
+        this.searchIndex = searchIndex;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+        this.permits = new Semaphore(maximumConcurrent);
+        this.writers = Executors.newFixedThreadPool(maximumConcurrent, new CustomizableThreadFactory("anime-import-"));
+    }
+
+    public AnimeImportReport importFrom(InputStream input, Format format) throws IOException {
+        if (!this.permits.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many imports running");
+        }
+        try {
+            ImportCounts counts = new ImportCounts();
+            BlockingQueue<List<AnimePostRequestBody>> queue = new ArrayBlockingQueue<>(this.queueCapacity);
+            Future<Void> writer = this.writers.submit(() -> {
+                this.write(queue, counts);
+                return null;
+            });
+            try {
+                this.read(input, format, queue, writer, counts);
+                this.put(queue, END, writer);
+                writer.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrupted", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                        : new IllegalStateException(e.getCause());
+            } finally {
+                writer.cancel(true);
+            }
+            return counts.toReport();
+        } finally {
+            this.permits.release();
+        }
+    }
+
+    private void read(InputStream input, Format format, BlockingQueue<List<AnimePostRequestBody>> queue,
+            Future<Void> writer, ImportCounts counts) throws IOException, InterruptedException, ExecutionException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        int nameColumn = format == Format.CSV ? this.readCsvHeader(reader) : -1;
+        List<AnimePostRequestBody> chunk = new ArrayList<>(this.chunkSize);
+        long lineNumber = format == Format.CSV ? 1 : 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            AnimePostRequestBody animeBody = format == Format.CSV
+                    ? this.parseCsvLine(line, nameColumn, lineNumber, counts)
+                    : this.parseNdjsonLine(line, lineNumber, counts);
+            if (animeBody == null || !this.isValid(animeBody, lineNumber, counts)) {
+                continue;
+            }
+            chunk.add(animeBody);
+            if (chunk.size() == this.chunkSize) {
+                this.put(queue, chunk, writer);
+                chunk = new ArrayList<>(this.chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            this.put(queue, chunk, writer);
+        }
+    }
+
+    /** Espera espaço na fila, mas para caso a thread de escrita tenha falhado */
+    private void put(BlockingQueue<List<AnimePostRequestBody>> queue, List<AnimePostRequestBody> chunk,
+            Future<Void> writer) throws InterruptedException, ExecutionException {
+        while (!queue.offer(chunk, 1, TimeUnit.SECONDS)) {
+            if (writer.isDone()) {
+                writer.get();
+                throw new IllegalStateException("Import writer stopped");
+            }
+        }
+    }
+
+    private void write(BlockingQueue<List<AnimePostRequestBody>> queue, ImportCounts counts)
+            throws InterruptedException {
+        for (List<AnimePostRequestBody> chunk = queue.take(); chunk != END; chunk = queue.take()) {
+            List<AnimePostRequestBody> current = chunk;
+            List<Anime> inserted = this.transactionTemplate.execute(status -> this.insertChunk(current));
+            Set<String> names = new HashSet<>();
+            inserted.forEach(anime -> {
+                names.add(anime.getName());
+                this.counter.added(anime.getName());
+                this.searchIndex.index(anime);
+            });
+            /** Uma passada pelo cache por nome por chunk, em vez de uma por anime */
+            this.cache.evictNames(names);
+            counts.accepted.addAndGet(inserted.size());
+            counts.duplicates.addAndGet(current.size() - inserted.size());
+            counts.chunks.incrementAndGet();
+        }
+    }
+
+    /**
+     * Um anime é duplicado quando o nome já existe no banco ou já apareceu antes no
+     * mesmo arquivo. Os chunks anteriores já foram gravados, então basta consultar
+     * o banco e os nomes do próprio chunk.
+     */
+    private List<Anime> insertChunk(List<AnimePostRequestBody> chunk) {
+        Set<String> names = chunk.stream().map(AnimePostRequestBody::getName).collect(Collectors.toSet());
+        Set<String> seen = new HashSet<>(this.repository.findExistingNames(names));
+        List<Anime> inserted = new ArrayList<>();
+        for (AnimePostRequestBody animeBody : chunk) {
+            if (seen.add(animeBody.getName())) {
+                Anime anime = AnimeMapper.INSTANCE.toAnime(animeBody);
+                this.entityManager.persist(anime);
+                inserted.add(anime);
+            }
+        }
+        this.entityManager.flush();
+        this.entityManager.clear();
+        return inserted;
+    }
+
+    private AnimePostRequestBody parseNdjsonLine(String line, long lineNumber, ImportCounts counts) {
+        try {
+            return this.ndjsonReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            counts.reject(lineNumber, "invalid JSON");
+            return null;
+        }
+    }
+
+    private int readCsvHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        List<String> columns = header == null ? List.of() : parseCsvFields(header);
+        for (int i = 0; i < columns.size(); i++) {
+            if ("name".equalsIgnoreCase(columns.get(i).trim())) {
+                return i;
+            }
+        }
+        throw new BadRequestException("The CSV header must have a \"name\" column");
+    }
+
+    private AnimePostRequestBody parseCsvLine(String line, int nameColumn, long lineNumber, ImportCounts counts) {
+        List<String> fields = parseCsvFields(line);
+        if (fields.size() <= nameColumn) {
+            counts.reject(lineNumber, "missing name column");
+            return null;
+        }
+        AnimePostRequestBody animeBody = new AnimePostRequestBody();
+        animeBody.setName(fields.get(nameColumn));
+        return animeBody;
+    }
+
+    /** CSV simples (RFC 4180): campos separados por vírgula, aspas duplas para escapar */
+    static List<String> parseCsvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private boolean isValid(AnimePostRequestBody animeBody, long lineNumber, ImportCounts counts) {
+        Set<ConstraintViolation<AnimePostRequestBody>> violations = this.validator.validate(animeBody);
+        if (violations.isEmpty()) {
+            return true;
+        }
+        counts.reject(lineNumber, violations.stream().map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining(", ")));
+        return false;
+    }
+
+    @Override
+    public void destroy() {
+        this.writers.shutdownNow();
+    }
+
+    private static class ImportCounts {
+        private final AtomicLong accepted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong chunks = new AtomicLong();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        void reject(long lineNumber, String message) {
+            this.rejected.incrementAndGet();
+            if (this.errors.size() < MAX_REPORTED_ERRORS) {
+                this.errors.add("line " + lineNumber + ": " + message);
+            }
+        }
+
+        AnimeImportReport toReport() {
+            return new AnimeImportReport(this.accepted.get(), this.rejected.get(), this.duplicates.get(),
+                    this.chunks.get(), new ArrayList<>(this.errors));
+        }
+    }
+}
@@ -1,16 +1,40 @@
 package academy.devdojo.springboot2.service;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
 import javax.transaction.Transactional;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import academy.devdojo.springboot2.domain.Anime;
 import academy.devdojo.springboot2.exception.BadRequestException;
+import academy.devdojo.springboot2.exception.NotFoundException;
+import academy.devdojo.springboot2.exception.PreconditionFailedException;
 import academy.devdojo.springboot2.mapper.AnimeMapper;
 import academy.devdojo.springboot2.repository.AnimeRepository;
+import academy.devdojo.springboot2.repository.AnimeSummary;
 import academy.devdojo.springboot2.requests.AnimePostRequestBody;
 import academy.devdojo.springboot2.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2.responses.AnimeBatchResponse;
+import academy.devdojo.springboot2.responses.AnimeSearchHit;
+import academy.devdojo.springboot2.search.AnimeSearchIndex;
+import academy.devdojo.springboot2.wrapper.CursorPage;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -21,19 +45,79 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class AnimeService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_BATCH_IDS = 1000;
+    /** Ids por IN (...), abaixo do limite de parâmetros dos bancos (1000 no Oracle, 2100 no SQL Server) */
+    private static final int BATCH_CHUNK_SIZE = 500;
+
     private final AnimeRepository repository;
+    private final AnimeCache cache;
+    private final AnimeCounter counter;
+    private final AnimeSearchIndex searchIndex;
 
+    /** O totalElements vem do AnimeCounter em vez de um SELECT COUNT(*) por requisição */
     public Page<Anime> listAll(Pageable pageable) {
-        return this.repository.findAll(pageable);
+        return this.toPage(this.repository.findSliceBy(pageable), pageable, this.counter::total);
+    }
+
+    /** Só id e name, sem entidades gerenciadas e sem passar pelo cache */
+    public Page<AnimeSummary> listAllSummaries(Pageable pageable) {
+        return this.toPage(this.repository.findSummarySliceBy(pageable), pageable, this.counter::total);
+    }
+
+    public Slice<Anime> listAllSlice(Pageable pageable) {
+        return this.repository.findSliceBy(pageable);
     }
 
-    public Anime findByIdOrThrowBadRequestException(Long id) {
-        return this.repository.findById(id)
+    public Anime findByIdOrThrowNotFoundException(Long id) {
+        return this.cache.findById(id, this.repository::findById)
                 /**
                  * Desta forma podemos "vazar" a exceção deixando a resposta mais completa ao
                  * cliente
                  */
-                .orElseThrow(() -> new BadRequestException("Anime not found"));
+                .orElseThrow(() -> new NotFoundException("Anime not found"));
+    }
+
+    /**
+     * Vários animes em uma requisição: os ids fora do cache são buscados juntos com
+     * findAllById, em um IN (...) por bloco de BATCH_CHUNK_SIZE ids. Os animes vêm na
+     * ordem dos ids pedidos (repetidos aparecem uma vez) e os ids inexistentes vão
+     * para "missing" em vez de gerar um erro.
+     */
+    public AnimeBatchResponse findAllByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("Ids must have between 1 and " + MAX_BATCH_IDS + " items");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("Ids must not be null");
+        }
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        Map<Long, Optional<Anime>> found = this.cache.findAllById(distinct, this::loadAllById);
+        List<Anime> animes = new ArrayList<>(distinct.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinct) {
+            Optional<Anime> anime = found.getOrDefault(id, Optional.empty());
+            if (anime.isPresent()) {
+                animes.add(anime.get());
+            } else {
+                missing.add(id);
+            }
+        }
+        return new AnimeBatchResponse(animes, missing);
+    }
+
+    /** Os ids não encontrados entram como vazios para que o cache também guarde a ausência */
+    private Map<Long, Optional<Anime>> loadAllById(Iterable<? extends Long> ids) {
+        List<Long> pending = new ArrayList<>();
+        ids.forEach(pending::add);
+        Map<Long, Optional<Anime>> loaded = new HashMap<>();
+        for (int from = 0; from < pending.size(); from += BATCH_CHUNK_SIZE) {
+            List<Long> chunk = pending.subList(from, Math.min(from + BATCH_CHUNK_SIZE, pending.size()));
+            chunk.forEach(id -> loaded.put(id, Optional.empty()));
+            this.repository.findAllById(chunk).forEach(anime -> loaded.put(anime.getId(), Optional.of(anime)));
+        }
+        return loaded;
     }
 
     /** A anotação @Transactional só permite que as transações sejam finalizadas quando o método for finalizado.
@@ -43,21 +127,181 @@ public class AnimeService {
     @Transactional
     public Anime save(AnimePostRequestBody animeBody) {
         Anime anime = AnimeMapper.INSTANCE.toAnime(animeBody);
-        return this.repository.save(anime);
+        Anime saved = this.repository.save(anime);
+        /** O cache é atualizado apenas com o que mudou: o próprio anime e as páginas do seu nome */
+        this.afterCommit(() -> {
+            this.cache.put(saved);
+            this.cache.evictName(saved.getName());
+            this.counter.added(saved.getName());
+            this.searchIndex.index(saved);
+        });
+        return saved;
     }
 
-    public void delete(Long id) {
-        this.repository.delete(this.findByIdOrThrowBadRequestException(id));
+    /** Consulta só a coluna version, usada nas requisições condicionais (If-None-Match) */
+    public Long findVersionOrThrowNotFoundException(Long id) {
+        return this.repository.findVersionById(id).orElseThrow(() -> new NotFoundException("Anime not found"));
     }
 
-    public void replace(AnimePutRequestBody animeBody) {
-        this.findByIdOrThrowBadRequestException(animeBody.getId());
-        Anime anime = AnimeMapper.INSTANCE.toAnime(animeBody);
-        anime.setId(animeBody.getId());
-        this.repository.save(anime);
+    /**
+     * Um único DELETE por id; com expectedVersion (If-Match) o anime só é removido se
+     * ainda estiver nessa versão. O nome, usado para limpar o cache e os contadores,
+     * vem do cache quando disponível para não precisar de um SELECT.
+     */
+    @Transactional
+    public void delete(Long id, Long expectedVersion) {
+        String name = this.cache.cachedName(id);
+        int deleted = expectedVersion == null
+                ? this.repository.deleteByIdReturningCount(id)
+                : this.repository.deleteByIdIfVersion(id, expectedVersion);
+        if (deleted == 0) {
+            throw this.notFoundOrModified(id, expectedVersion);
+        }
+        this.afterCommit(() -> {
+            this.cache.evict(id);
+            this.evictName(name);
+            this.counter.removed(name);
+            this.searchIndex.remove(id);
+        });
+    }
+
+    /**
+     * Um único UPDATE por id, sem o findById e sem o SELECT do merge. Com
+     * expectedVersion (If-Match) a alteração só é aplicada se o anime ainda estiver
+     * na versão que o cliente viu.
+     */
+    @Transactional
+    public void replace(AnimePutRequestBody animeBody, Long expectedVersion) {
+        Long id = animeBody.getId();
+        String currentName = this.cache.cachedName(id);
+        int updated = expectedVersion == null
+                ? this.repository.updateName(id, animeBody.getName())
+                : this.repository.updateNameIfVersion(id, animeBody.getName(), expectedVersion);
+        if (updated == 0) {
+            throw this.notFoundOrModified(id, expectedVersion);
+        }
+        this.afterCommit(() -> {
+            this.cache.evict(id);
+            this.evictName(currentName);
+            this.cache.evictName(animeBody.getName());
+            this.counter.renamed(currentName, animeBody.getName());
+            this.searchIndex.index(id, animeBody.getName());
+        });
+    }
+
+    /** Só no caminho de erro: uma consulta a mais para diferenciar "não existe" de "versão diferente" */
+    private RuntimeException notFoundOrModified(Long id, Long expectedVersion) {
+        if (expectedVersion == null || this.repository.findVersionById(id).isEmpty()) {
+            return new NotFoundException("Anime not found");
+        }
+        return new PreconditionFailedException("The anime was modified by another request");
+    }
+
+    /**
+     * Executa a ação só depois do commit, como o AnimeBulkService faz por chunk: se
+     * a transação for desfeita o cache, os contadores e o índice de busca continuam
+     * com o que está no banco, e uma leitura concorrente não guarda um valor que
+     * ainda pode ser revertido. Fora de uma transação a ação é executada na hora.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /** Sem o nome antigo não há como saber quais páginas do findByName mudaram */
+    private void evictName(String name) {
+        if (name != null) {
+            this.cache.evictName(name);
+        } else {
+            this.cache.evictAllNames();
+        }
     }
 
     public Page<Anime> findByName(String name, Pageable pageable) {
-        return this.repository.findByName(name, pageable);
+        return this.cache.findByName(name, pageable,
+                () -> this.toPage(this.repository.findSliceByName(name, pageable), pageable, () -> this.counter.byName(name)));
+    }
+
+    public Page<AnimeSummary> findSummariesByName(String name, Pageable pageable) {
+        return this.toPage(this.repository.findSummarySliceByName(name, pageable), pageable, () -> this.counter.byName(name));
+    }
+
+    public Slice<Anime> findByNameSlice(String name, Pageable pageable) {
+        return this.repository.findSliceByName(name, pageable);
+    }
+
+    /** Busca parcial e tolerante a erros de digitação, respondida pelo índice em memória sem ir ao banco */
+    public List<AnimeSearchHit> search(String query, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        return this.searchIndex.search(query, limit);
+    }
+
+    /**
+     * Na última página o total é exato (offset + quantidade retornada), então o
+     * contador só é consultado quando existem mais páginas ou quando a página
+     * pedida está além do fim.
+     */
+    private <T> Page<T> toPage(Slice<T> slice, Pageable pageable, LongSupplier total) {
+        boolean exact = !slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0);
+        long count = exact ? pageable.getOffset() + slice.getNumberOfElements() : total.getAsLong();
+        return new PageImpl<>(slice.getContent(), pageable, count);
+    }
+
+    /**
+     * Paginação por cursor (keyset): o cursor guarda o último id retornado e a
+     * próxima página começa a partir dele. Buscamos um registro a mais para saber
+     * se existe próxima página sem precisar de COUNT.
+     */
+    public CursorPage<Anime> listAfter(String cursor, int size) {
+        PageRequest limit = this.cursorLimit(size);
+        List<Anime> animes = cursor == null
+                ? this.repository.findAllByOrderByIdAsc(limit)
+                : this.repository.findByIdGreaterThanOrderByIdAsc(this.decodeCursor(cursor), limit);
+        return this.toCursorPage(animes, limit.getPageSize() - 1);
+    }
+
+    public CursorPage<Anime> findByNameAfter(String name, String cursor, int size) {
+        PageRequest limit = this.cursorLimit(size);
+        List<Anime> animes = cursor == null
+                ? this.repository.findByNameOrderByIdAsc(name, limit)
+                : this.repository.findByNameAndIdGreaterThanOrderByIdAsc(name, this.decodeCursor(cursor), limit);
+        return this.toCursorPage(animes, limit.getPageSize() - 1);
+    }
+
+    private PageRequest cursorLimit(int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        return PageRequest.of(0, size + 1);
+    }
+
+    private CursorPage<Anime> toCursorPage(List<Anime> animes, int size) {
+        if (animes.size() <= size) {
+            return new CursorPage<>(animes, size, null);
+        }
+        List<Anime> content = animes.subList(0, size);
+        return new CursorPage<>(content, size, this.encodeCursor(content.get(size - 1).getId()));
+    }
+
+    private String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Long decodeCursor(String cursor) {
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
     }
 }
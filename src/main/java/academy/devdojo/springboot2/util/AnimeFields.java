@@ -0,0 +1,67 @@
+package academy.devdojo.springboot2.util;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.exception.BadRequestException;
+import academy.devdojo.springboot2.repository.AnimeSummary;
+import academy.devdojo.springboot2.responses.AnimeResponse;
+
+/**
+ * Campos pedidos no parâmetro fields (ex: fields=id,name). Os que não foram pedidos
+ * ficam null no AnimeResponse e não são escritos no JSON. Sem a version a
+ * consulta usa a projeção AnimeSummary; com ela é preciso a entidade.
+ */
+public final class AnimeFields {
+
+    private static final String ALLOWED = "id, name, version";
+
+    private final boolean id;
+    private final boolean name;
+    private final boolean version;
+
+    private AnimeFields(boolean id, boolean name, boolean version) {
+        this.id = id;
+        this.name = name;
+        this.version = version;
+    }
+
+    public static AnimeFields parse(String fields) {
+        boolean id = false;
+        boolean name = false;
+        boolean version = false;
+        for (String field : fields.split(",")) {
+            switch (field.trim()) {
+            case "id":
+                id = true;
+                break;
+            case "name":
+                name = true;
+                break;
+            case "version":
+                version = true;
+                break;
+            case "":
+                break;
+            default:
+                throw new BadRequestException("Unknown field '" + field.trim() + "'. The fields are: " + ALLOWED);
+            }
+        }
+        if (!id && !name && !version) {
+            throw new BadRequestException("Inform at least one field: " + ALLOWED);
+        }
+        return new AnimeFields(id, name, version);
+    }
+
+    /** Com id e/ou name a projeção basta */
+    public boolean needsEntity() {
+        return this.version;
+    }
+
+    public AnimeResponse toResponse(AnimeSummary anime) {
+        return new AnimeResponse(this.id ? anime.getId() : null, this.name ? anime.getName() : null, null);
+    }
+
+    public AnimeResponse toResponse(Anime anime) {
+        return new AnimeResponse(this.id ? anime.getId() : null, this.name ? anime.getName() : null,
+                this.version ? anime.getVersion() : null);
+    }
+}
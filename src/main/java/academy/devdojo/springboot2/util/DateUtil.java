@@ -3,6 +3,7 @@ package academy.devdojo.springboot2.util;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -16,7 +17,35 @@ import java.time.format.DateTimeFormatter;
  */
 @Component
 public class DateUtil {
+
+    /** O DateTimeFormatter é imutável e thread-safe: o padrão é compilado uma única vez */
+    private static final DateTimeFormatter DATABASE_STYLE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * O formato não tem frações de segundo, então todas as chamadas dentro do mesmo
+     * segundo devolvem o mesmo texto. Guardamos o último resultado e, enquanto o
+     * segundo não muda, nada é alocado.
+     */
+    private volatile FormattedSecond lastFormatted = new FormattedSecond(Long.MIN_VALUE, null);
+
     public String formatLocalDateTimeToDatabaseStyle(LocalDateTime localDateTime) {
-        return DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").format(localDateTime);
+        long second = localDateTime.toEpochSecond(ZoneOffset.UTC);
+        FormattedSecond cached = this.lastFormatted;
+        if (cached.second == second) {
+            return cached.text;
+        }
+        String text = DATABASE_STYLE.format(localDateTime);
+        this.lastFormatted = new FormattedSecond(second, text);
+        return text;
+    }
+
+    private static final class FormattedSecond {
+        private final long second;
+        private final String text;
+
+        private FormattedSecond(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
     }
 }
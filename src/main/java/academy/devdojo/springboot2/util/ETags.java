@@ -0,0 +1,109 @@
+package academy.devdojo.springboot2.util;
+
+import java.util.function.Supplier;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.exception.PreconditionFailedException;
+
+/**
+ * ETags derivadas da coluna version do Anime. O cliente reenvia a ETag no
+ * If-None-Match (GET, recebe 304 se nada mudou) ou no If-Match (PUT/DELETE,
+ * recebe 412 se alguém alterou o anime antes).
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /** A ETag de uma página muda quando muda a paginação, o total ou a versão de qualquer anime dela */
+    public static String of(Slice<Anime> page) {
+        long hash = 17;
+        hash = mix(hash, page.getNumber());
+        hash = mix(hash, page.getSize());
+        if (page instanceof Page) {
+            hash = mix(hash, ((Page<Anime>) page).getTotalElements());
+        }
+        for (Anime anime : page) {
+            hash = mix(hash, anime.getId() == null ? 0 : anime.getId());
+            hash = mix(hash, anime.getVersion() == null ? 0 : anime.getVersion());
+        }
+        return "\"p" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Responde 304 sem corpo quando o If-None-Match corresponde à ETag atual; o
+     * corpo só é montado (e serializado) quando vai de fato para o cliente. O
+     * no-cache obriga o cliente a revalidar a cada uso.
+     */
+    public static <T> ResponseEntity<T> okOrNotModified(String etag, String ifNoneMatch, Supplier<T> body) {
+        return okOrNotModified(etag, ifNoneMatch, CacheControl.noCache(), body);
+    }
+
+    /** O mesmo com o Cache-Control do HttpCachePolicy, que pode permitir reuso sem revalidar */
+    public static <T> ResponseEntity<T> okOrNotModified(String etag, String ifNoneMatch, CacheControl cacheControl,
+            Supplier<T> body) {
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag, cacheControl);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        return notModified(etag, CacheControl.noCache());
+    }
+
+    public static <T> ResponseEntity<T> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+    }
+
+    /** Comparação fraca do If-None-Match: aceita lista de ETags, "*" e o prefixo W/ */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || stripWeak(trimmed).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versão exigida pelo If-Match, ou null quando o header não veio ou é "*". O
+     * If-Match usa comparação forte, então ETags fracas ou inválidas nunca batem.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        try {
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            }
+        } catch (NumberFormatException e) {
+            // tratada abaixo
+        }
+        throw new PreconditionFailedException("If-Match does not match the current version of the anime");
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static long mix(long hash, long value) {
+        return 31 * hash + (value ^ (value >>> 32));
+    }
+}
@@ -0,0 +1,36 @@
+package academy.devdojo.springboot2.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache-Control das respostas de leitura com ETag. O padrão (max-age 0) é o
+ * no-cache: o cliente pode guardar a resposta mas revalida a cada uso. Com
+ * max-age o cliente reusa a resposta sem ir ao servidor por esse tempo e, com
+ * stale-while-revalidate, ainda pode usá-la vencida enquanto revalida em segundo
+ * plano. Só vale a pena quando os consumidores aceitam esse atraso.
+ */
+@Component
+public class HttpCachePolicy {
+
+    private final CacheControl cacheControl;
+
+    public HttpCachePolicy(@Value("${anime.http-cache.max-age-seconds:0}") long maxAgeSeconds,
+            @Value("${anime.http-cache.stale-while-revalidate-seconds:0}") long staleWhileRevalidateSeconds) {
+        if (maxAgeSeconds <= 0) {
+            this.cacheControl = CacheControl.noCache();
+        } else if (staleWhileRevalidateSeconds <= 0) {
+            this.cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePrivate();
+        } else {
+            this.cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePrivate()
+                    .staleWhileRevalidate(staleWhileRevalidateSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public CacheControl cacheControl() {
+        return this.cacheControl;
+    }
+}
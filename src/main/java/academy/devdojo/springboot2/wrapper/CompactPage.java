@@ -0,0 +1,47 @@
+package academy.devdojo.springboot2.wrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.Value;
+
+/**
+ * Envelope de paginação enxuto. A Page do Spring Data também escreve os objetos
+ * "pageable" e "sort", que repetem o number e o size e que o PageableResponse
+ * descarta na leitura. Aqui ficam só os campos que o cliente usa; no Slice
+ * (?slice=true) o totalElements e o totalPages não são escritos.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({ "content", "number", "size", "totalElements", "totalPages", "last" })
+public class CompactPage<T> {
+    List<T> content;
+    int number;
+    int size;
+    Long totalElements;
+    Integer totalPages;
+    boolean last;
+
+    public static <S, T> CompactPage<T> of(Slice<S> slice, Function<S, T> mapper) {
+        List<T> content = new ArrayList<>(slice.getNumberOfElements());
+        for (S element : slice.getContent()) {
+            content.add(mapper.apply(element));
+        }
+        Long totalElements = null;
+        Integer totalPages = null;
+        if (slice instanceof Page) {
+            totalElements = ((Page<S>) slice).getTotalElements();
+            totalPages = ((Page<S>) slice).getTotalPages();
+        }
+        return new CompactPage<>(Collections.unmodifiableList(content), slice.getNumber(), slice.getSize(),
+                totalElements, totalPages, slice.isLast());
+    }
+}
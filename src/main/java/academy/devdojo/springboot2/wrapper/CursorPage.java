@@ -0,0 +1,21 @@
+package academy.devdojo.springboot2.wrapper;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de uma listagem por cursor (keyset). Não existe total nem número da
+ * página: para buscar a próxima basta enviar o nextCursor no parâmetro "after".
+ * Quando nextCursor é null não há mais registros.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+}
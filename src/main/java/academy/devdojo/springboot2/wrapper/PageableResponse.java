@@ -10,6 +10,12 @@ import lombok.Setter;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
+/**
+ * Lê tanto uma Page quanto um Slice (?slice=true). O Slice não tem
+ * totalElements/totalPages, então eles são estimados a partir do "last": se
+ * houver próxima página o total fica um registro além da página atual.
+ * Também lê a CompactPage, que não tem first, numberOfElements, pageable e sort.
+ */
 @Getter
 @Setter
 public class PageableResponse<T> extends PageImpl<T> {
@@ -22,19 +28,20 @@ public class PageableResponse<T> extends PageImpl<T> {
     public PageableResponse(@JsonProperty("content") List<T> content,
         @JsonProperty("number") int number,
         @JsonProperty("size") int size,
-        @JsonProperty("totalElements") int totalElements,
+        @JsonProperty("totalElements") Long totalElements,
         @JsonProperty("last") boolean last,
-        @JsonProperty("first") boolean first,
-        @JsonProperty("totalPages") int totalPages,
-        @JsonProperty("numberOfElements") int numberOfElements,
+        @JsonProperty("first") Boolean first,
+        @JsonProperty("totalPages") Integer totalPages,
+        @JsonProperty("numberOfElements") Integer numberOfElements,
         @JsonProperty("pageable") JsonNode pageable,
         @JsonProperty("sort") JsonNode sort) {
-        super(content, PageRequest.of(number, size), totalElements);
+        super(content, PageRequest.of(number, size), totalElements != null ? totalElements
+                : (long) number * size + content.size() + (last ? 0 : 1));
 
         this.last = last;
-        this.first = first;
-        this.totalPages = totalPages;
-        this.numberOfElements = numberOfElements;
+        this.first = first != null ? first : number == 0;
+        this.totalPages = totalPages != null ? totalPages : super.getTotalPages();
+        this.numberOfElements = numberOfElements != null ? numberOfElements : content.size();
 
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,3 @@
+-- O findByName filtra por name e ordena por id; com as duas colunas no índice o
+-- banco não varre a tabela nem ordena o resultado.
+create index idx_anime_name_id on anime (name, id);
@@ -0,0 +1,8 @@
+-- Roles em uma tabela própria em vez da coluna authorities ("ROLE_USER,ROLE_ADMIN").
+-- As roles dos usuários existentes são copiadas pelo V3.
+create table user_role (
+    user_id bigint not null,
+    role varchar(255)
+);
+
+alter table user_role add constraint fk_user_role_user foreign key (user_id) references user (id);
@@ -0,0 +1,3 @@
+-- O findByUsername roda em toda requisição autenticada. Sem índice era uma
+-- varredura da tabela user; o índice único também impede usernames repetidos.
+create unique index ux_user_username on user (username);
@@ -0,0 +1,2 @@
+-- As roles já estão na tabela user_role (V3)
+alter table user drop column authorities;
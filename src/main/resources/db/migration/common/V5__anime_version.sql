@@ -0,0 +1,2 @@
+-- Versão para o lock otimista (@Version) e para as ETags do AnimeController
+alter table anime add column version bigint default 0 not null;
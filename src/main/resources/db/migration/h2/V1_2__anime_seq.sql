@@ -0,0 +1,6 @@
+-- Mesmo que o V1_2 do MySQL; no H2 a anime_seq é uma sequence de verdade
+create sequence anime_seq start with 1 increment by 50;
+
+alter sequence anime_seq restart with (select coalesce(max(id), 0) + 1 from anime);
+
+alter table anime alter column id bigint not null;
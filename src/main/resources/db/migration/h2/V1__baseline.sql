@@ -0,0 +1,14 @@
+-- Mesmo esquema do V1 do MySQL: o que o ddl-auto: update criava antes das migrações
+create table anime (
+    id bigint auto_increment not null,
+    name varchar(255),
+    primary key (id)
+);
+
+create table user (
+    id bigint auto_increment not null,
+    authorities varchar(255),
+    password varchar(255),
+    username varchar(255),
+    primary key (id)
+);
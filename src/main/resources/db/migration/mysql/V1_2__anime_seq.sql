@@ -0,0 +1,12 @@
+-- Os ids do anime passam a vir da anime_seq (alocados de 50 em 50) em vez do
+-- AUTO_INCREMENT. O MySQL não tem sequences, o Hibernate emula a anime_seq com
+-- uma tabela.
+create table anime_seq (
+    next_val bigint
+) engine=InnoDB;
+
+-- Os animes antigos foram gravados com AUTO_INCREMENT. A anime_seq precisa
+-- começar depois do maior id para não gerar ids repetidos.
+insert into anime_seq select coalesce(max(id), 0) + 1 from anime;
+
+alter table anime modify id bigint not null;
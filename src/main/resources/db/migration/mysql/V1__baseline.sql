@@ -0,0 +1,16 @@
+-- Esquema como o ddl-auto: update deixava o banco antes das migrações. Bancos que
+-- já existiam são marcados nessa versão (baseline-on-migrate) e só recebem as
+-- migrações seguintes, então tudo o que mudou depois precisa estar nelas.
+create table anime (
+    id bigint not null auto_increment,
+    name varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table user (
+    id bigint not null auto_increment,
+    authorities varchar(255),
+    password varchar(255),
+    username varchar(255),
+    primary key (id)
+) engine=InnoDB;
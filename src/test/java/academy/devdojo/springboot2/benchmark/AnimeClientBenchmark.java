@@ -0,0 +1,138 @@
+package academy.devdojo.springboot2.benchmark;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import academy.devdojo.springboot2.Springboot2EssentialsApplication;
+import academy.devdojo.springboot2.client.AnimeClient;
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.domain.User;
+import academy.devdojo.springboot2.repository.AnimeRepository;
+import academy.devdojo.springboot2.repository.UserRepository;
+import academy.devdojo.springboot2.wrapper.PageableResponse;
+
+/**
+ * Sobe a aplicação em uma porta aleatória com o H2 em memória e compara o
+ * RestTemplate padrão (SimpleClientHttpRequestFactory, como no SpringClient
+ * antigo) com o AnimeClient, em uma thread e com 16 threads. Os "iterate*"
+ * percorrem os 2000 animes de 100 em 100 gastando um pouco de CPU por anime: o
+ * sequencial pede a página seguinte só depois de processar a atual, o
+ * AnimeClient.iterateAll já a pediu enquanto a atual era processada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeClientBenchmark {
+
+    private static final int ANIMES = 2000;
+    private static final int PAGE_SIZE = 100;
+    private static final long WORK_PER_ANIME = 2_000;
+
+    private ConfigurableApplicationContext context;
+    private RestTemplate simpleRestTemplate;
+    private AnimeClient animeClient;
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.context = new SpringApplicationBuilder(Springboot2EssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:anime_client;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--logging.level.root=warn");
+        AnimeRepository animeRepository = this.context.getBean(AnimeRepository.class);
+        this.firstId = animeRepository.saveAll(IntStream.range(0, ANIMES)
+                .mapToObj(i -> Anime.builder().name("Anime " + i).build())
+                .collect(Collectors.toList())).get(0).getId();
+        this.context.getBean(UserRepository.class).save(User.builder().username("bench").password("{noop}bench")
+                .roles(Set.of("ROLE_USER")).build());
+
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) this.context).getWebServer().getPort();
+        this.simpleRestTemplate = new RestTemplate();
+        this.simpleRestTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(baseUrl));
+        this.simpleRestTemplate.getInterceptors().add(new BasicAuthenticationInterceptor("bench", "bench"));
+        this.animeClient = AnimeClient.builder().baseUrl(baseUrl).username("bench").password("bench")
+                .maxConnections(16).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.animeClient.close();
+        this.context.close();
+    }
+
+    @Benchmark
+    public Anime findByIdSimpleRestTemplate() {
+        return this.simpleRestTemplate.getForObject("/anime/{id}", Anime.class, this.firstId);
+    }
+
+    @Benchmark
+    public Anime findByIdAnimeClient() {
+        return this.animeClient.findById(this.firstId).orElseThrow();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Anime findByIdSimpleRestTemplate16Threads() {
+        return this.findByIdSimpleRestTemplate();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Anime findByIdAnimeClient16Threads() {
+        return this.findByIdAnimeClient();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void iterateSequential(Blackhole blackhole) {
+        int page = 0;
+        PageableResponse<Anime> current;
+        do {
+            current = this.animeClient.list(page++, PAGE_SIZE);
+            for (Anime anime : current) {
+                Blackhole.consumeCPU(WORK_PER_ANIME);
+                blackhole.consume(anime);
+            }
+        } while (!current.isLast());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void iteratePrefetching(Blackhole blackhole) {
+        Iterator<Anime> animes = this.animeClient.iterateAll(PAGE_SIZE);
+        while (animes.hasNext()) {
+            Blackhole.consumeCPU(WORK_PER_ANIME);
+            blackhole.consume(animes.next());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package academy.devdojo.springboot2.benchmark;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import academy.devdojo.springboot2.Springboot2EssentialsApplication;
+import academy.devdojo.springboot2.client.AnimeClient;
+import academy.devdojo.springboot2.client.CachingClientHttpRequestInterceptor;
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.domain.User;
+import academy.devdojo.springboot2.repository.AnimeRepository;
+import academy.devdojo.springboot2.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compara o AnimeClient sem e com o cache de respostas buscando ids com
+ * distribuição Zipf (s = 1): poucos animes concentram a maior parte dos acessos,
+ * como em um catálogo real. O servidor responde com max-age=1 e
+ * stale-while-revalidate=5, e o cache guarda 10% dos animes. No fim são
+ * impressos os acertos e as requisições economizadas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeClientCacheBenchmark {
+
+    private static final int ANIMES = 10_000;
+    private static final int CACHE_SIZE = ANIMES / 10;
+    private static final int SAMPLES = 1 << 16;
+
+    private ConfigurableApplicationContext context;
+    private AnimeClient animeClient;
+    private AnimeClient cachedAnimeClient;
+    private long[] ids;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.context = new SpringApplicationBuilder(Springboot2EssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:anime_client_cache;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--anime.http-cache.max-age-seconds=1",
+                "--anime.http-cache.stale-while-revalidate-seconds=5",
+                "--logging.level.root=warn");
+        long firstId = this.context.getBean(AnimeRepository.class).saveAll(IntStream.range(0, ANIMES)
+                .mapToObj(i -> Anime.builder().name("Anime " + i).build())
+                .collect(Collectors.toList())).get(0).getId();
+        this.context.getBean(UserRepository.class).save(User.builder().username("bench").password("{noop}bench")
+                .roles(Set.of("ROLE_USER")).build());
+        this.ids = zipfIds(firstId);
+
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) this.context).getWebServer().getPort();
+        this.animeClient = AnimeClient.builder().baseUrl(baseUrl).username("bench").password("bench").build();
+        this.cachedAnimeClient = AnimeClient.builder().baseUrl(baseUrl).username("bench").password("bench")
+                .cacheSize((long) CACHE_SIZE).meterRegistry(new SimpleMeterRegistry()).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.cachedAnimeClient.getCache().ifPresent(AnimeClientCacheBenchmark::print);
+        this.animeClient.close();
+        this.cachedAnimeClient.close();
+        this.context.close();
+    }
+
+    @Benchmark
+    public Anime findByIdNoCache() {
+        return this.animeClient.findById(this.nextId()).orElseThrow();
+    }
+
+    @Benchmark
+    public Anime findByIdCached() {
+        return this.cachedAnimeClient.findById(this.nextId()).orElseThrow();
+    }
+
+    private long nextId() {
+        return this.ids[this.next.getAndIncrement() & (SAMPLES - 1)];
+    }
+
+    /** Sorteio pela função acumulada: o anime de posição k tem peso 1/k */
+    private static long[] zipfIds(long firstId) {
+        double[] cumulative = new double[ANIMES];
+        double sum = 0;
+        for (int k = 0; k < ANIMES; k++) {
+            sum += 1.0 / (k + 1);
+            cumulative[k] = sum;
+        }
+        Random random = new Random(42);
+        long[] ids = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            int position = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            ids[i] = firstId + (position >= 0 ? position : -position - 1);
+        }
+        return ids;
+    }
+
+    private static void print(CachingClientHttpRequestInterceptor cache) {
+        long saved = cache.getHits() + cache.getStaleHits();
+        long total = saved + cache.getRevalidated() + cache.getMisses();
+        System.out.printf("%ncache: hits=%d stale=%d revalidated=%d misses=%d, requests saved=%.1f%%%n",
+                cache.getHits(), cache.getStaleHits(), cache.getRevalidated(), cache.getMisses(),
+                total == 0 ? 0 : 100.0 * saved / total);
+    }
+}
@@ -0,0 +1,51 @@
+package academy.devdojo.springboot2.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.mapper.AnimeMapper;
+import academy.devdojo.springboot2.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2.requests.AnimePutRequestBody;
+
+/** Conversão dos corpos de POST e PUT para a entidade, feita em toda escrita */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimeMapperBenchmark {
+
+    private AnimePostRequestBody postBody;
+    private AnimePutRequestBody putBody;
+
+    @Setup
+    public void setup() {
+        this.postBody = new AnimePostRequestBody();
+        this.postBody.setName("Hajime no Ippo");
+        this.putBody = new AnimePutRequestBody();
+        this.putBody.setId(1L);
+        this.putBody.setName("Hajime no Ippo");
+    }
+
+    @Benchmark
+    public Anime toAnimeFromPostBody() {
+        return AnimeMapper.INSTANCE.toAnime(this.postBody);
+    }
+
+    @Benchmark
+    public Anime toAnimeFromPutBody() {
+        return AnimeMapper.INSTANCE.toAnime(this.putBody);
+    }
+}
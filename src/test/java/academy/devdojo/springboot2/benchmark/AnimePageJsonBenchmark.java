@@ -0,0 +1,109 @@
+package academy.devdojo.springboot2.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.mapper.AnimeMapper;
+import academy.devdojo.springboot2.responses.AnimeResponse;
+import academy.devdojo.springboot2.wrapper.CompactPage;
+import academy.devdojo.springboot2.wrapper.PageableResponse;
+
+/**
+ * Serialização da página devolvida pelo GET /anime e leitura do mesmo JSON como
+ * PageableResponse, que é o que os clientes (e os testes de integração) fazem.
+ * O ObjectMapper é montado como o do Spring Boot, com e sem o Afterburner, para
+ * comparar a Page&lt;Anime&gt; antiga com a CompactPage&lt;AnimeResponse&gt;. O
+ * tamanho em bytes de cada corpo é impresso no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimePageJsonBenchmark {
+
+    @Param({ "20", "100" })
+    private int pageSize;
+
+    private Page<Anime> page;
+    private CompactPage<AnimeResponse> compactPage;
+    private byte[] json;
+    private byte[] compactJson;
+    private ObjectWriter writer;
+    private ObjectWriter afterburnerWriter;
+    private ObjectReader reader;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        List<Anime> animes = LongStream.rangeClosed(1, this.pageSize)
+                .mapToObj(id -> Anime.builder().id(id).name("Anime " + id).version(0L).build())
+                .collect(Collectors.toList());
+        this.page = new PageImpl<>(animes, PageRequest.of(0, this.pageSize), 10_000);
+        this.compactPage = CompactPage.of(this.page, AnimeMapper.INSTANCE::toAnimeResponse);
+        this.writer = objectMapper.writer();
+        this.afterburnerWriter = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new AfterburnerModule()).build().writer();
+        this.reader = objectMapper.readerFor(new TypeReference<PageableResponse<Anime>>() {
+        });
+        this.json = this.writer.writeValueAsBytes(this.page);
+        this.compactJson = this.afterburnerWriter.writeValueAsBytes(this.compactPage);
+        System.out.printf("%nPage<Anime>: %d bytes, CompactPage<AnimeResponse>: %d bytes (%d animes)%n",
+                this.json.length, this.compactJson.length, this.pageSize);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return this.writer.writeValueAsBytes(this.page);
+    }
+
+    @Benchmark
+    public byte[] serializeCompactPage() throws IOException {
+        return this.writer.writeValueAsBytes(this.compactPage);
+    }
+
+    @Benchmark
+    public byte[] serializeCompactPageWithAfterburner() throws IOException {
+        return this.afterburnerWriter.writeValueAsBytes(this.compactPage);
+    }
+
+    @Benchmark
+    public PageableResponse<Anime> deserializePageableResponse() throws IOException {
+        return this.reader.readValue(this.json);
+    }
+
+    @Benchmark
+    public PageableResponse<Anime> deserializeCompactPageAsPageableResponse() throws IOException {
+        return this.reader.readValue(this.compactJson);
+    }
+}
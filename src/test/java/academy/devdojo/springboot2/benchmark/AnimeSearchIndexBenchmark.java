@@ -0,0 +1,67 @@
+package academy.devdojo.springboot2.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import academy.devdojo.springboot2.responses.AnimeSearchHit;
+import academy.devdojo.springboot2.search.AnimeSearchIndex;
+
+/**
+ * Latência do GET /anime/search com o catálogo inteiro no índice. Os nomes são
+ * combinações aleatórias (semente fixa) de palavras comuns em títulos de anime,
+ * então os trigramas mais frequentes têm listas de postings bem longas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AnimeSearchIndexBenchmark {
+
+    private static final String[] WORDS = { "naruto", "shingeki", "kyojin", "hunter", "boku", "hero", "academia",
+            "kimetsu", "yaiba", "one", "piece", "dragon", "ball", "sword", "art", "online", "tokyo", "ghoul",
+            "death", "note", "fullmetal", "alchemist", "steins", "gate", "code", "geass", "neon", "genesis",
+            "evangelion", "cowboy", "bebop", "spirited", "away", "mob", "psycho", "jujutsu", "kaisen", "chainsaw",
+            "man", "spy", "family", "violet", "evergarden", "monogatari", "gintama", "haikyuu", "bleach", "berserk" };
+
+    @Param({ "1000000" })
+    private int size;
+
+    @Param({ "naruto", "shingeki no kyoijn", "evang", "kimetsu no yaiba 42" })
+    private String query;
+
+    private AnimeSearchIndex searchIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.searchIndex = new AnimeSearchIndex();
+        Random random = new Random(42);
+        for (int id = 1; id <= this.size; id++) {
+            StringBuilder name = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+            for (int words = 1 + random.nextInt(3); words > 0; words--) {
+                name.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            this.searchIndex.index((long) id, name.append(' ').append(id % 100).toString());
+        }
+    }
+
+    @Benchmark
+    public List<AnimeSearchHit> search() {
+        return this.searchIndex.search(this.query, 10);
+    }
+}
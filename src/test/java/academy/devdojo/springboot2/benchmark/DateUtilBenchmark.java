@@ -0,0 +1,34 @@
+package academy.devdojo.springboot2.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import academy.devdojo.springboot2.util.DateUtil;
+
+/** Formatação usada no log de cada GET /anime */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateUtilBenchmark {
+
+    private final DateUtil dateUtil = new DateUtil();
+    private final LocalDateTime dateTime = LocalDateTime.of(2020, 10, 1, 12, 30, 15);
+
+    @Benchmark
+    public String formatLocalDateTimeToDatabaseStyle() {
+        return this.dateUtil.formatLocalDateTimeToDatabaseStyle(this.dateTime);
+    }
+}
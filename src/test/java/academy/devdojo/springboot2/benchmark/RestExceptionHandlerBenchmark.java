@@ -0,0 +1,72 @@
+package academy.devdojo.springboot2.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import academy.devdojo.springboot2.controller.AnimeController;
+import academy.devdojo.springboot2.exception.BadRequestException;
+import academy.devdojo.springboot2.exception.NotFoundException;
+import academy.devdojo.springboot2.handler.RestExceptionHandler;
+import academy.devdojo.springboot2.requests.AnimePostRequestBody;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Montagem do corpo de erro para os casos mais comuns: NotFoundException (anime
+ * não encontrado), BadRequestException e falha de validação do @Valid. As
+ * exceções são criadas a cada chamada, como acontece em uma requisição de verdade.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestExceptionHandlerBenchmark {
+
+    private final RestExceptionHandler handler = new RestExceptionHandler(new SimpleMeterRegistry());
+    private WebRequest request;
+    private MethodParameter saveParameter;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        this.request = new ServletWebRequest(new MockHttpServletRequest("POST", "/anime"));
+        this.saveParameter = new MethodParameter(
+                AnimeController.class.getMethod("save", AnimePostRequestBody.class), 0);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> notFound() {
+        return this.handler.handlerNotFoundException(new NotFoundException("Anime not found"));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> badRequest() {
+        return this.handler.handlerBadRequestException(new BadRequestException("Size must be between 1 and 100"));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> methodArgumentNotValid() throws Exception {
+        AnimePostRequestBody animeBody = new AnimePostRequestBody();
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(animeBody, "animePostRequestBody");
+        bindingResult.rejectValue("name", "NotEmpty", "O campo \"nome\" não pode ser vazio");
+        return this.handler.handleException(new MethodArgumentNotValidException(this.saveParameter, bindingResult),
+                this.request);
+    }
+}
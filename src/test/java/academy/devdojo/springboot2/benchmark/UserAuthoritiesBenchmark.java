@@ -0,0 +1,53 @@
+package academy.devdojo.springboot2.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import academy.devdojo.springboot2.domain.User;
+
+/**
+ * getAuthorities() é chamado várias vezes em toda requisição autenticada.
+ * "cached" mede as chamadas seguintes no mesmo usuário; "firstCall" mede um
+ * usuário recém carregado do banco, que ainda precisa buscar o conjunto no
+ * AuthoritySets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserAuthoritiesBenchmark {
+
+    private static final Set<String> ROLES = Set.of("ROLE_USER", "ROLE_ADMIN");
+
+    private User user;
+
+    @Setup
+    public void setup() {
+        this.user = User.builder().username("root").password("{noop}root").roles(ROLES).build();
+        this.user.getAuthorities();
+    }
+
+    @Benchmark
+    public Set<GrantedAuthority> cached() {
+        return this.user.getAuthorities();
+    }
+
+    @Benchmark
+    public Set<GrantedAuthority> firstCall() {
+        return User.builder().username("root").password("{noop}root").roles(ROLES).build().getAuthorities();
+    }
+}
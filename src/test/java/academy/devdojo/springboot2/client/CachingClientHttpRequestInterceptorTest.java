@@ -0,0 +1,130 @@
+package academy.devdojo.springboot2.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+class CachingClientHttpRequestInterceptorTest {
+
+    private static final URI ANIME_URI = URI.create("http://localhost/anime/1");
+
+    private final List<HttpRequest> sentRequests = new ArrayList<>();
+
+    @Test
+    @DisplayName("intercept serves the cached body without a request while max-age is not over")
+    void intercept_ServesCachedBodyWithoutRequest_WhileMaxAgeIsNotOver() throws IOException {
+        CachingClientHttpRequestInterceptor interceptor = this.interceptor();
+        ClientHttpRequestExecution execution = this.respondWith(ok("\"1\"", "max-age=60"));
+
+        interceptor.intercept(get(), new byte[0], execution).close();
+        ClientHttpResponse cached = interceptor.intercept(get(), new byte[0], execution);
+
+        Assertions.assertThat(body(cached)).isEqualTo("{\"id\":1}");
+        Assertions.assertThat(this.sentRequests).hasSize(1);
+        Assertions.assertThat(interceptor.getHits()).isEqualTo(1);
+        Assertions.assertThat(interceptor.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("intercept revalidates with If-None-Match and reuses the body when the server answers 304")
+    void intercept_RevalidatesWithIfNoneMatchAndReusesBody_WhenServerAnswersNotModified() throws IOException {
+        CachingClientHttpRequestInterceptor interceptor = this.interceptor();
+
+        interceptor.intercept(get(), new byte[0], this.respondWith(ok("\"1\"", "no-cache"))).close();
+        ClientHttpResponse revalidated = interceptor.intercept(get(), new byte[0],
+                this.respondWith(new MockClientHttpResponse(new byte[0], HttpStatus.NOT_MODIFIED)));
+
+        Assertions.assertThat(this.sentRequests.get(1).getHeaders().getIfNoneMatch()).containsExactly("\"1\"");
+        Assertions.assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(body(revalidated)).isEqualTo("{\"id\":1}");
+        Assertions.assertThat(interceptor.getRevalidated()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("intercept sends a plain GET when an entry cached without ETag expires")
+    void intercept_SendsPlainGet_WhenEntryWithoutETagExpires() throws IOException, InterruptedException {
+        CachingClientHttpRequestInterceptor interceptor = this.interceptor();
+
+        interceptor.intercept(get(), new byte[0], this.respondWith(ok(null, "max-age=1"))).close();
+        Thread.sleep(1100);
+        ClientHttpResponse refetched = interceptor.intercept(get(), new byte[0], this.respondWith(ok(null, "max-age=1")));
+
+        Assertions.assertThat(this.sentRequests).hasSize(2);
+        Assertions.assertThat(this.sentRequests.get(1).getHeaders()).doesNotContainKey(HttpHeaders.IF_NONE_MATCH);
+        Assertions.assertThat(body(refetched)).isEqualTo("{\"id\":1}");
+        Assertions.assertThat(interceptor.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("intercept does not cache the response when Cache-Control is no-store")
+    void intercept_DoesNotCacheResponse_WhenCacheControlIsNoStore() throws IOException {
+        CachingClientHttpRequestInterceptor interceptor = this.interceptor();
+        ClientHttpRequestExecution execution = this.respondWith(ok("\"1\"", "no-store"));
+
+        interceptor.intercept(get(), new byte[0], execution).close();
+        interceptor.intercept(get(), new byte[0], execution).close();
+
+        Assertions.assertThat(this.sentRequests).hasSize(2);
+        Assertions.assertThat(this.sentRequests.get(1).getHeaders().getIfNoneMatch()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("intercept drops the cached response when the same url is changed by a PUT")
+    void intercept_DropsCachedResponse_WhenSameUrlIsChangedByPut() throws IOException {
+        CachingClientHttpRequestInterceptor interceptor = this.interceptor();
+        ClientHttpRequestExecution execution = this.respondWith(ok("\"1\"", "max-age=60"));
+
+        interceptor.intercept(get(), new byte[0], execution).close();
+        interceptor.intercept(new MockClientHttpRequest(HttpMethod.PUT, ANIME_URI), new byte[0],
+                this.respondWith(new MockClientHttpResponse(new byte[0], HttpStatus.NO_CONTENT))).close();
+        interceptor.intercept(get(), new byte[0], execution).close();
+
+        Assertions.assertThat(this.sentRequests).hasSize(3);
+        Assertions.assertThat(interceptor.getHits()).isZero();
+    }
+
+    private CachingClientHttpRequestInterceptor interceptor() {
+        return new CachingClientHttpRequestInterceptor(100, (uri, method) -> new MockClientHttpRequest(method, uri),
+                Runnable::run);
+    }
+
+    private ClientHttpRequestExecution respondWith(ClientHttpResponse response) {
+        return (request, body) -> {
+            this.sentRequests.add(request);
+            return response;
+        };
+    }
+
+    private static MockClientHttpRequest get() {
+        return new MockClientHttpRequest(HttpMethod.GET, ANIME_URI);
+    }
+
+    private static MockClientHttpResponse ok(String etag, String cacheControl) {
+        MockClientHttpResponse response = new MockClientHttpResponse("{\"id\":1}".getBytes(StandardCharsets.UTF_8),
+                HttpStatus.OK);
+        if (etag != null) {
+            response.getHeaders().set(HttpHeaders.ETAG, etag);
+        }
+        response.getHeaders().setCacheControl(cacheControl);
+        return response;
+    }
+
+    private static String body(ClientHttpResponse response) throws IOException {
+        return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+    }
+}
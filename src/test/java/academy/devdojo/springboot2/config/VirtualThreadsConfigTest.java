@@ -0,0 +1,37 @@
+package academy.devdojo.springboot2.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadsConfigTest {
+
+    @Test
+    @DisplayName("newVirtualThreadPerTaskExecutor runs tasks on named virtual threads when Java is 21 or newer")
+    void newVirtualThreadPerTaskExecutor_RunsTasksOnNamedVirtualThreads_WhenJavaIs21OrNewer() throws Exception {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21);
+        ExecutorService executor = VirtualThreadsConfig.newVirtualThreadPerTaskExecutor("task-");
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            Assertions.assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+            Assertions.assertThat(thread.getName()).startsWith("task-");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("newVirtualThreadPerTaskExecutor throws IllegalStateException when Java is older than 21")
+    void newVirtualThreadPerTaskExecutor_ThrowsIllegalStateException_WhenJavaIsOlderThan21() {
+        Assumptions.assumeTrue(Runtime.version().feature() < 21);
+
+        Assertions.assertThatIllegalStateException()
+                .isThrownBy(() -> VirtualThreadsConfig.newVirtualThreadPerTaskExecutor("task-"))
+                .withMessageContaining("Java 21");
+    }
+}
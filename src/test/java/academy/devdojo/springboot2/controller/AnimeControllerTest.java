@@ -2,6 +2,8 @@ package academy.devdojo.springboot2.controller;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
 
@@ -14,20 +16,32 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.Page;
+import org.mockito.Spy;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import academy.devdojo.springboot2.domain.Anime;
 import academy.devdojo.springboot2.exception.BadRequestException;
+import academy.devdojo.springboot2.exception.NotFoundException;
+import academy.devdojo.springboot2.exception.PreconditionFailedException;
 import academy.devdojo.springboot2.util.AnimeUtil;
+import academy.devdojo.springboot2.repository.AnimeSummary;
 import academy.devdojo.springboot2.requests.AnimePostRequestBody;
 import academy.devdojo.springboot2.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2.responses.AnimeBatchResponse;
+import academy.devdojo.springboot2.responses.AnimeBulkResponse;
+import academy.devdojo.springboot2.responses.AnimeImportReport;
+import academy.devdojo.springboot2.responses.AnimeResponse;
+import academy.devdojo.springboot2.service.AnimeBulkService;
+import academy.devdojo.springboot2.service.AnimeImportService;
 import academy.devdojo.springboot2.service.AnimeService;
 import academy.devdojo.springboot2.util.AnimeCreator;
 import academy.devdojo.springboot2.util.DateUtil;
+import academy.devdojo.springboot2.util.HttpCachePolicy;
+import academy.devdojo.springboot2.wrapper.CompactPage;
 
 @ExtendWith(SpringExtension.class)
 public class AnimeControllerTest {
@@ -43,12 +57,21 @@ public class AnimeControllerTest {
     @Mock
     private AnimeService service;
 
+    @Mock
+    private AnimeBulkService bulkService;
+
+    @Mock
+    private AnimeImportService importService;
+
     @Mock
     private DateUtil dateUtil;
 
+    @Spy
+    private HttpCachePolicy httpCachePolicy = new HttpCachePolicy(0, 0);
+
     /** Definie o setup das classes que serão mockadas */
     @BeforeEach
-    private void setup() {
+    private void setup() throws IOException {
         PageImpl<Anime> anime = new PageImpl<>(List.of(AnimeCreator.createAnimeToBeSaved()));
         /**
          * O ArgumentMatchers.any() serve para informar que qualquer valor que for
@@ -59,7 +82,7 @@ public class AnimeControllerTest {
         BDDMockito.when(this.service.listAll(ArgumentMatchers.any())).thenReturn(anime);
         BDDMockito.when(this.service.findByName(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
                 .thenReturn(anime);
-        BDDMockito.when(this.service.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong()))
+        BDDMockito.when(this.service.findByIdOrThrowNotFoundException(ArgumentMatchers.anyLong()))
                 .thenReturn(AnimeCreator.createValidAnime());
         /**
          * Podemose determinar o tipo de objeto que é válido. Nesse caso só será válido
@@ -72,28 +95,35 @@ public class AnimeControllerTest {
          * Usamos o doNothing para indicar que nada será feito ao chamar o método. Isso
          * serve em casos de métodos com retorno void
          */
-        BDDMockito.doNothing().when(this.service).replace(ArgumentMatchers.any(AnimePutRequestBody.class));
-        BDDMockito.doNothing().when(this.service).delete(ArgumentMatchers.anyLong());
+        BDDMockito.doNothing().when(this.service).replace(ArgumentMatchers.any(AnimePutRequestBody.class),
+                ArgumentMatchers.any());
+        BDDMockito.doNothing().when(this.service).delete(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+        BDDMockito.when(this.service.findVersionOrThrowNotFoundException(ArgumentMatchers.anyLong())).thenReturn(3L);
+        BDDMockito.when(this.bulkService.saveAll(ArgumentMatchers.anyList())).thenReturn(new AnimeBulkResponse(1, 1));
+        BDDMockito.when(this.importService.importFrom(ArgumentMatchers.any(InputStream.class),
+                ArgumentMatchers.any(AnimeImportService.Format.class)))
+                .thenReturn(new AnimeImportReport(1, 0, 0, 1, Collections.emptyList()));
     }
 
     @Test
     @DisplayName("List returns list of animes inside page object when successful")
     public void list_ReturnsListOfAnimesInsidePageObject_WhenSuccessful() {
         String expectedName = AnimeCreator.createAnimeToBeSaved().getName();
-        Page<Anime> list = animeController.list(null).getBody();
+        CompactPage<AnimeResponse> list = animeController.list(null, null, null).getBody();
         Assertions.assertThat(list).isNotNull();
-        Assertions.assertThat(list.toList()).isNotEmpty().hasSize(1);
-        Assertions.assertThat(list.toList().get(0).getName()).isEqualTo(expectedName);
+        Assertions.assertThat(list.getContent()).isNotEmpty().hasSize(1);
+        Assertions.assertThat(list.getContent().get(0).getName()).isEqualTo(expectedName);
+        Assertions.assertThat(list.getTotalElements()).isEqualTo(1L);
     }
 
     @Test
     @DisplayName("List returns list of animes when successful")
     public void findByName_ReturnsListOfAnimes_WhenSuccessful() {
         String expectedName = AnimeCreator.createAnimeToBeSaved().getName();
-        Page<Anime> list = animeController.findByName(expectedName, null).getBody();
+        CompactPage<AnimeResponse> list = animeController.findByName(expectedName, null, null, null).getBody();
         Assertions.assertThat(list).isNotNull();
-        Assertions.assertThat(list.toList()).isNotEmpty().hasSize(1);
-        Assertions.assertThat(list.toList().get(0).getName()).isEqualTo(expectedName);
+        Assertions.assertThat(list.getContent()).isNotEmpty().hasSize(1);
+        Assertions.assertThat(list.getContent().get(0).getName()).isEqualTo(expectedName);
     }
 
     @Test
@@ -102,16 +132,49 @@ public class AnimeControllerTest {
         BDDMockito.when(this.service.findByName(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
                 .thenReturn(new PageImpl<>(Collections.emptyList()));
 
-        Page<Anime> list = animeController.findByName("", null).getBody();
+        CompactPage<AnimeResponse> list = animeController.findByName("", null, null, null).getBody();
 
-        Assertions.assertThat(list).isNotNull().isEmpty();
+        Assertions.assertThat(list).isNotNull();
+        Assertions.assertThat(list.getContent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("list returns only the requested fields from the projection when fields has no version")
+    public void list_ReturnsOnlyRequestedFieldsFromProjection_WhenFieldsHasNoVersion() {
+        AnimeSummary summary = new AnimeSummary() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public String getName() {
+                return "Hajime no Ippo";
+            }
+        };
+        BDDMockito.when(this.service.listAllSummaries(ArgumentMatchers.any()))
+                .thenReturn(new PageImpl<>(List.of(summary)));
+
+        ResponseEntity<CompactPage<AnimeResponse>> entity = animeController.list(null, null, "name");
+
+        Assertions.assertThat(entity.getBody().getContent()).containsExactly(new AnimeResponse(null, "Hajime no Ippo", null));
+        Assertions.assertThat(entity.getHeaders().getETag()).isNull();
+        BDDMockito.verify(this.service, BDDMockito.never()).listAll(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("list throws BadRequestException when fields has an unknown field")
+    public void list_ThrowsBadRequestException_WhenFieldsHasAnUnknownField() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeController.list(null, null, "id,studio"))
+                .withMessageContaining("studio");
     }
 
     @Test
     @DisplayName("List returns anime when successful")
     public void findById_ReturnsAnime_WhenSuccessful() {
         Long expectedId = AnimeCreator.createValidAnime().getId();
-        Anime anime = animeController.findById(expectedId).getBody();
+        Anime anime = animeController.findById(expectedId, (String) null).getBody();
         Assertions.assertThat(anime).isNotNull();
         Assertions.assertThat(anime.getId()).isEqualTo(expectedId);
     }
@@ -123,6 +186,30 @@ public class AnimeControllerTest {
         Assertions.assertThat(anime).isNotNull().isEqualTo(AnimeCreator.createValidAnime());
     }
 
+    @Test
+    @DisplayName("saveAll returns created with inserted count when successful")
+    public void saveAll_ReturnsCreatedWithInsertedCount_WhenSuccessful() {
+        ResponseEntity<AnimeBulkResponse> entity = animeController.saveAll(List.of(AnimeUtil.postBodyfromValidAnime()));
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(entity.getBody()).isNotNull();
+        Assertions.assertThat(entity.getBody().getInserted()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("importAnimes reads the body as CSV when content type is text/csv")
+    public void importAnimes_ReadsBodyAsCsv_WhenContentTypeIsTextCsv() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContentType("text/csv; charset=UTF-8");
+        request.setContent("name\nBerserk\n".getBytes());
+
+        ResponseEntity<AnimeImportReport> entity = animeController.importAnimes(request);
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(entity.getBody().getAccepted()).isEqualTo(1);
+        BDDMockito.verify(this.importService).importFrom(ArgumentMatchers.any(InputStream.class),
+                ArgumentMatchers.eq(AnimeImportService.Format.CSV));
+    }
+
     @Test
     @DisplayName("replace returns no content when successful")
     public void replace_ReturnsNoContent_WhenSuccessful() {
@@ -130,29 +217,77 @@ public class AnimeControllerTest {
          * No caso em que o método não retorna nada podemos validar o http response
          * status se irá estoruar alguma exceção
          */
-        Assertions.assertThatCode(() -> animeController.replace(AnimeUtil.putBodyfromValidAnime()))
+        Assertions.assertThatCode(() -> animeController.replace(AnimeUtil.putBodyfromValidAnime(), null))
                 .doesNotThrowAnyException();
-        ResponseEntity<Void> entity = animeController.replace(AnimeUtil.putBodyfromValidAnime());
+        ResponseEntity<Void> entity = animeController.replace(AnimeUtil.putBodyfromValidAnime(), null);
         Assertions.assertThat(entity).isNotNull();
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
 
     @Test
-    @DisplayName("replace returns BadRequestException when anime not found")
-    public void replace_ReturnsBadRequestException_WhenAnimeNotFound() {
-        BadRequestException expected = new BadRequestException("Anime not found");
-        BDDMockito.doThrow(expected).when(this.service).replace(ArgumentMatchers.any(AnimePutRequestBody.class));
-        Exception thrown = assertThrows(Exception.class, () -> animeController.replace(AnimeUtil.putBodyfromValidAnime()));
+    @DisplayName("replace returns NotFoundException when anime not found")
+    public void replace_ReturnsNotFoundException_WhenAnimeNotFound() {
+        NotFoundException expected = new NotFoundException("Anime not found");
+        BDDMockito.doThrow(expected).when(this.service).replace(ArgumentMatchers.any(AnimePutRequestBody.class),
+                ArgumentMatchers.any());
+        Exception thrown = assertThrows(Exception.class, () -> animeController.replace(AnimeUtil.putBodyfromValidAnime(), null));
         Assertions.assertThat(thrown.getMessage()).isEqualTo("Anime not found");
-        Assertions.assertThat(thrown.getClass()).isEqualTo(BadRequestException.class);
+        Assertions.assertThat(thrown.getClass()).isEqualTo(NotFoundException.class);
     }
 
     @Test
     @DisplayName("delete returns no content when successful")
     public void delete_ReturnsNoContent_WhenSuccessful() {
-        Assertions.assertThatCode(() -> animeController.delete(1l)).doesNotThrowAnyException();
-        ResponseEntity<Void> entity = animeController.delete(1l);
+        Assertions.assertThatCode(() -> animeController.delete(1l, null)).doesNotThrowAnyException();
+        ResponseEntity<Void> entity = animeController.delete(1l, null);
         Assertions.assertThat(entity).isNotNull();
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
+
+    @Test
+    @DisplayName("findById returns not modified without loading the anime when If-None-Match matches the version")
+    public void findById_ReturnsNotModifiedWithoutLoadingAnime_WhenIfNoneMatchMatchesVersion() {
+        ResponseEntity<Anime> entity = animeController.findById(1l, "\"3\"");
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        Assertions.assertThat(entity.getBody()).isNull();
+        Assertions.assertThat(entity.getHeaders().getETag()).isEqualTo("\"3\"");
+        BDDMockito.verify(this.service, BDDMockito.never()).findByIdOrThrowNotFoundException(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("list returns not modified when If-None-Match is the ETag of the same page")
+    public void list_ReturnsNotModified_WhenIfNoneMatchIsTheETagOfTheSamePage() {
+        String etag = animeController.list(null, null, null).getHeaders().getETag();
+
+        ResponseEntity<CompactPage<AnimeResponse>> entity = animeController.list(null, etag, null);
+
+        Assertions.assertThat(etag).isNotNull();
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        Assertions.assertThat(entity.getBody()).isNull();
+    }
+
+    @Test
+    @DisplayName("replace passes the If-Match version to the service and rejects weak ETags")
+    public void replace_PassesIfMatchVersionToService_AndRejectsWeakETags() {
+        animeController.replace(AnimeUtil.putBodyfromValidAnime(), "\"3\"");
+
+        BDDMockito.verify(this.service).replace(ArgumentMatchers.any(AnimePutRequestBody.class), ArgumentMatchers.eq(3L));
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> animeController.replace(AnimeUtil.putBodyfromValidAnime(), "W/\"3\""));
+    }
+
+    @Test
+    @DisplayName("findAllByIds returns the batch from the service for query and body ids when successful")
+    public void findAllByIds_ReturnsBatchFromService_WhenSuccessful() {
+        AnimeBatchResponse batch = new AnimeBatchResponse(List.of(AnimeCreator.createValidAnime()), List.of(2L));
+        BDDMockito.when(this.service.findAllByIds(List.of(1L, 2L))).thenReturn(batch);
+
+        ResponseEntity<AnimeBatchResponse> fromQuery = animeController.findAllByIds(List.of(1L, 2L));
+        ResponseEntity<AnimeBatchResponse> fromBody = animeController.findAllByIdsInBody(List.of(1L, 2L));
+
+        Assertions.assertThat(fromQuery.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(fromQuery.getBody()).isEqualTo(batch);
+        Assertions.assertThat(fromBody.getBody()).isEqualTo(batch);
+    }
 }
@@ -0,0 +1,73 @@
+package academy.devdojo.springboot2.handler;
+
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import academy.devdojo.springboot2.exception.BadRequestException;
+import academy.devdojo.springboot2.exception.NotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RestExceptionHandlerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry registry;
+    private RestExceptionHandler handler;
+
+    @BeforeEach
+    void setup() {
+        this.registry = new SimpleMeterRegistry();
+        this.handler = new RestExceptionHandler(this.registry);
+    }
+
+    @Test
+    @DisplayName("handlerNotFoundException returns 404 with the same fields as ExceptionDetails when successful")
+    void handlerNotFoundException_Returns404WithTheSameFieldsAsExceptionDetails_WhenSuccessful() throws Exception {
+        ResponseEntity<byte[]> response = this.handler.handlerNotFoundException(new NotFoundException("Anime not found"));
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        Assertions.assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        Map<String, Object> body = this.read(response);
+        Assertions.assertThat(body).containsEntry("details", "Anime not found")
+                .containsEntry("status", 404)
+                .containsEntry("developerMessage", NotFoundException.class.getName())
+                .containsKeys("title", "timestamp");
+        Assertions.assertThat((String) body.get("timestamp")).matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}");
+    }
+
+    @Test
+    @DisplayName("handlerBadRequestException escapes the message when it has quotes")
+    void handlerBadRequestException_EscapesTheMessage_WhenItHasQuotes() throws Exception {
+        ResponseEntity<byte[]> response = this.handler
+                .handlerBadRequestException(new BadRequestException("The CSV header must have a \"name\" column"));
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Assertions.assertThat(this.read(response)).containsEntry("details", "The CSV header must have a \"name\" column");
+    }
+
+    @Test
+    @DisplayName("handlerNotFoundException counts the error by type and status when successful")
+    void handlerNotFoundException_CountsTheErrorByTypeAndStatus_WhenSuccessful() {
+        this.handler.handlerNotFoundException(new NotFoundException("Anime not found"));
+        this.handler.handlerNotFoundException(new NotFoundException("Anime not found"));
+
+        Assertions.assertThat(this.registry.get(RestExceptionHandler.METRIC_NAME)
+                .tag("type", "NotFoundException").tag("status", "404").counter().count()).isEqualTo(2.0);
+        Assertions.assertThat(this.registry.get(RestExceptionHandler.METRIC_NAME)
+                .tag("type", "BadRequestException").tag("status", "400").counter().count()).isZero();
+    }
+
+    private Map<String, Object> read(ResponseEntity<byte[]> response) throws Exception {
+        return this.objectMapper.readValue(response.getBody(), new TypeReference<Map<String, Object>>() {
+        });
+    }
+}
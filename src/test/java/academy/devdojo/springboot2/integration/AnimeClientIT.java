@@ -0,0 +1,85 @@
+package academy.devdojo.springboot2.integration;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import academy.devdojo.springboot2.client.AnimeClient;
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.domain.User;
+import academy.devdojo.springboot2.repository.AnimeRepository;
+import academy.devdojo.springboot2.repository.UserRepository;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+                "spring.datasource.url=jdbc:h2:mem:anime_client;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=" })
+class AnimeClientIT {
+        @Value("${local.server.port}")
+        private int port;
+
+        @Autowired
+        private AnimeRepository animeRepository;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        private AnimeClient animeClient;
+
+        /** O banco é compartilhado pelos testes da classe, então é limpo antes de cada um */
+        @BeforeEach
+        void setup() {
+                this.animeRepository.deleteAll();
+                this.userRepository.deleteAll();
+                this.userRepository.save(User.builder().username("root")
+                                .password("{bcrypt}$2a$04$bQ120F37vJ8ahyX3Kh3CGeMMdz7YHFsXMe5gzDfRrIqXnMpip2n2a")
+                                .roles(Set.of("ROLE_USER")).build());
+                this.animeClient = AnimeClient.builder().baseUrl("http://localhost:" + port).username("root")
+                                .password("root").maxConnections(4).build();
+        }
+
+        @AfterEach
+        void tearDown() throws IOException {
+                this.animeClient.close();
+        }
+
+        @Test
+        @DisplayName("streamAll returns every anime in id order across pages when successful")
+        void streamAll_ReturnsEveryAnimeInIdOrderAcrossPages_WhenSuccessful() {
+                List<Anime> saved = this.animeRepository.saveAll(IntStream.range(0, 7)
+                                .mapToObj(i -> Anime.builder().name("Anime " + i).build())
+                                .collect(Collectors.toList()));
+
+                List<Anime> animes = this.animeClient.streamAll(3).collect(Collectors.toList());
+
+                Assertions.assertThat(animes).extracting(Anime::getId)
+                                .containsExactlyElementsOf(saved.stream().map(Anime::getId).collect(Collectors.toList()));
+        }
+
+        @Test
+        @DisplayName("streamAll returns empty stream when there are no animes")
+        void streamAll_ReturnsEmptyStream_WhenThereAreNoAnimes() {
+                Assertions.assertThat(this.animeClient.streamAll(3)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("findByIdAsync returns anime when successful and empty when anime is not found")
+        void findByIdAsync_ReturnsAnime_WhenSuccessful_AndEmptyWhenAnimeIsNotFound() {
+                Anime saved = this.animeRepository.save(Anime.builder().name("Hajime no Ippo").build());
+
+                Assertions.assertThat(this.animeClient.findByIdAsync(saved.getId()).join())
+                                .hasValueSatisfying(anime -> Assertions.assertThat(anime.getName()).isEqualTo("Hajime no Ippo"));
+                Assertions.assertThat(this.animeClient.findByIdAsync(saved.getId() + 1000).join()).isEmpty();
+        }
+}
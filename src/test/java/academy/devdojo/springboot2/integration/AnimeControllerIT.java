@@ -5,10 +5,14 @@ import academy.devdojo.springboot2.domain.User;
 import academy.devdojo.springboot2.repository.AnimeRepository;
 import academy.devdojo.springboot2.repository.UserRepository;
 import academy.devdojo.springboot2.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2.responses.AnimeBatchResponse;
 import academy.devdojo.springboot2.util.AnimeCreator;
 import academy.devdojo.springboot2.util.AnimeUtil;
+import academy.devdojo.springboot2.wrapper.CursorPage;
 import academy.devdojo.springboot2.wrapper.PageableResponse;
 import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,14 +28,20 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 
 import java.util.List;
+import java.util.Set;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+import javax.persistence.EntityManagerFactory;
+
+/** As estatísticas do Hibernate permitem contar os comandos SQL de cada requisição */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureTestDatabase
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 class AnimeControllerIT {
@@ -49,6 +59,9 @@ class AnimeControllerIT {
         @Autowired
         private UserRepository userRepository;
 
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
         /** @Lazy: determina que o bean será inicializado após a aplicação */
         @Lazy
         /** @TestConfiguration: tona a classe um bean */
@@ -70,7 +83,7 @@ class AnimeControllerIT {
         void setup() {
                 this.userRepository.save(User.builder().username("root")
                                 .password("{bcrypt}$2a$04$bQ120F37vJ8ahyX3Kh3CGeMMdz7YHFsXMe5gzDfRrIqXnMpip2n2a")
-                                .authorities("ROLE_USER").build());
+                                .roles(Set.of("ROLE_USER")).build());
         }
 
         @Test
@@ -91,6 +104,57 @@ class AnimeControllerIT {
                 Assertions.assertThat(animePage.toList().get(0).getName()).isEqualTo(expectedName);
         }
 
+        @Test
+        @DisplayName("list returns compact page without pageable and sort when successful")
+        void list_ReturnsCompactPageWithoutPageableAndSort_WhenSuccessful() {
+                animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+                String body = testRestTemplate.getForObject("/anime", String.class);
+
+                Assertions.assertThat(body).contains("\"content\"", "\"totalElements\":1", "\"version\"")
+                                .doesNotContain("\"pageable\"", "\"sort\"");
+        }
+
+        @Test
+        @DisplayName("list returns slice without totals that PageableResponse can read when slice is requested")
+        void list_ReturnsSliceReadableByPageableResponse_WhenSliceIsRequested() {
+                animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+                animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+                PageableResponse<Anime> animePage = testRestTemplate.exchange("/anime?slice=true&size=1",
+                                HttpMethod.GET, null, new ParameterizedTypeReference<PageableResponse<Anime>>() {
+                                }).getBody();
+
+                Assertions.assertThat(animePage).isNotNull();
+                Assertions.assertThat(animePage.toList()).hasSize(1);
+                Assertions.assertThat(animePage.hasNext()).isTrue();
+        }
+
+        @Test
+        @DisplayName("listByCursor walks through all animes using next cursor when successful")
+        void listByCursor_WalksThroughAllAnimesUsingNextCursor_WhenSuccessful() {
+                animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+                animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+                Anime lastAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+                CursorPage<Anime> firstPage = testRestTemplate.exchange("/anime/cursor?size=2", HttpMethod.GET, null,
+                                new ParameterizedTypeReference<CursorPage<Anime>>() {
+                                }).getBody();
+
+                Assertions.assertThat(firstPage).isNotNull();
+                Assertions.assertThat(firstPage.getContent()).hasSize(2);
+                Assertions.assertThat(firstPage.getNextCursor()).isNotNull();
+
+                CursorPage<Anime> secondPage = testRestTemplate.exchange("/anime/cursor?size=2&after={after}",
+                                HttpMethod.GET, null, new ParameterizedTypeReference<CursorPage<Anime>>() {
+                                }, firstPage.getNextCursor()).getBody();
+
+                Assertions.assertThat(secondPage).isNotNull();
+                Assertions.assertThat(secondPage.getContent()).hasSize(1);
+                Assertions.assertThat(secondPage.getContent().get(0).getId()).isEqualTo(lastAnime.getId());
+                Assertions.assertThat(secondPage.getNextCursor()).isNull();
+        }
+
         @Test
         @DisplayName("findById returns anime when successful")
         void findById_ReturnsAnime_WhenSuccessful() {
@@ -178,4 +242,87 @@ class AnimeControllerIT {
                 Assertions.assertThat(animeResponseEntity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
         }
 
+        @Test
+        @DisplayName("findById returns not modified when If-None-Match has the current ETag")
+        void findById_ReturnsNotModified_WhenIfNoneMatchHasTheCurrentETag() {
+                Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+                ResponseEntity<Anime> first = testRestTemplate.getForEntity("/anime/{id}", Anime.class, savedAnime.getId());
+                HttpHeaders headers = new HttpHeaders();
+                headers.setIfNoneMatch(first.getHeaders().getETag());
+                ResponseEntity<Anime> second = testRestTemplate.exchange("/anime/{id}", HttpMethod.GET,
+                                new HttpEntity<>(headers), Anime.class, savedAnime.getId());
+
+                Assertions.assertThat(first.getHeaders().getETag()).isEqualTo("\"0\"");
+                Assertions.assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+                Assertions.assertThat(second.getBody()).isNull();
+        }
+
+        @Test
+        @DisplayName("replace returns precondition failed when If-Match has an outdated ETag")
+        void replace_ReturnsPreconditionFailed_WhenIfMatchHasAnOutdatedETag() {
+                Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+                savedAnime.setName("new name");
+                HttpHeaders headers = new HttpHeaders();
+                headers.setIfMatch("\"0\"");
+
+                ResponseEntity<Void> firstUpdate = testRestTemplate.exchange("/anime", HttpMethod.PUT,
+                                new HttpEntity<>(savedAnime, headers), Void.class);
+                ResponseEntity<Void> secondUpdate = testRestTemplate.exchange("/anime", HttpMethod.PUT,
+                                new HttpEntity<>(savedAnime, headers), Void.class);
+
+                Assertions.assertThat(firstUpdate.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+                Assertions.assertThat(secondUpdate.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+                Assertions.assertThat(animeRepository.findById(savedAnime.getId())).get()
+                                .extracting(Anime::getVersion).isEqualTo(1L);
+        }
+
+        @Test
+        @DisplayName("replace and delete run a single SQL statement each when successful")
+        void replaceAndDelete_RunSingleSqlStatementEach_WhenSuccessful() {
+                Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+                /** A primeira requisição busca o usuário no banco; as seguintes usam o cache de credenciais */
+                testRestTemplate.getForEntity("/anime/{id}", Anime.class, savedAnime.getId());
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+                statistics.clear();
+                savedAnime.setName("new name");
+                ResponseEntity<Void> replaced = testRestTemplate.exchange("/anime", HttpMethod.PUT,
+                                new HttpEntity<>(savedAnime), Void.class);
+                long replaceStatements = statistics.getPrepareStatementCount();
+
+                statistics.clear();
+                ResponseEntity<Void> deleted = testRestTemplate.exchange("/anime/{id}", HttpMethod.DELETE, null,
+                                Void.class, savedAnime.getId());
+                long deleteStatements = statistics.getPrepareStatementCount();
+
+                Assertions.assertThat(replaced.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+                Assertions.assertThat(deleted.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+                Assertions.assertThat(replaceStatements).isEqualTo(1);
+                Assertions.assertThat(deleteStatements).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("batch returns animes in request order and missing ids with a single query when successful")
+        void batch_ReturnsAnimesInRequestOrderAndMissingIdsWithSingleQuery_WhenSuccessful() {
+                Anime first = animeRepository.save(Anime.builder().name("Hajime no Ippo").build());
+                Anime second = animeRepository.save(Anime.builder().name("Naruto").build());
+                long missingId = second.getId() + 1000;
+                /** A primeira requisição busca o usuário no banco; as seguintes usam o cache de credenciais */
+                testRestTemplate.getForEntity("/anime/{id}", Anime.class, first.getId());
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+                statistics.clear();
+                AnimeBatchResponse batch = testRestTemplate.getForObject("/anime/batch?ids={ids}",
+                                AnimeBatchResponse.class, second.getId() + "," + missingId + "," + first.getId());
+                long batchStatements = statistics.getPrepareStatementCount();
+                AnimeBatchResponse posted = testRestTemplate.postForObject("/anime/batch",
+                                List.of(second.getId(), missingId, first.getId()), AnimeBatchResponse.class);
+
+                Assertions.assertThat(batch.getAnimes()).extracting(Anime::getId)
+                                .containsExactly(second.getId(), first.getId());
+                Assertions.assertThat(batch.getMissing()).containsExactly(missingId);
+                Assertions.assertThat(batchStatements).isEqualTo(1);
+                Assertions.assertThat(posted).isEqualTo(batch);
+        }
 }
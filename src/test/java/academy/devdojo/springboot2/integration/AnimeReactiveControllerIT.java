@@ -0,0 +1,154 @@
+package academy.devdojo.springboot2.integration;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.domain.User;
+import academy.devdojo.springboot2.repository.AnimeRepository;
+import academy.devdojo.springboot2.repository.UserRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * O H2 faz o papel do MySQL para os dois drivers: o JDBC (Flyway e JPA) e o R2DBC
+ * abrem o mesmo banco em memória pelo nome, então o que é gravado pelo
+ * AnimeRepository é lido pelo AnimeReactiveRepository.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+                "spring.datasource.url=jdbc:h2:mem:anime_reactive;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "anime.reactive.enabled=true",
+                "anime.reactive.url=r2dbc:h2:mem:///anime_reactive;DB_CLOSE_DELAY=-1",
+                "anime.reactive.username=sa",
+                "anime.reactive.password=" })
+class AnimeReactiveControllerIT {
+        @Autowired
+        @Qualifier(value = "testRestTemplateReactiveRoleUser")
+        private TestRestTemplate testRestTemplate;
+
+        @Autowired
+        @Qualifier(value = "testRestTemplateReactiveWrongPassword")
+        private TestRestTemplate wrongPasswordRestTemplate;
+
+        @Autowired
+        private AnimeRepository animeRepository;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Lazy
+        @TestConfiguration
+        static class Config {
+                @Bean(name = "testRestTemplateReactiveRoleUser")
+                public TestRestTemplate testRestTemplateRoleUserCreator(@Value("${local.server.port}") int port) {
+                        RestTemplateBuilder restTemplateBuilder = new RestTemplateBuilder()
+                                        .rootUri("http://localhost:" + port).basicAuthentication("root", "root");
+                        return new TestRestTemplate(restTemplateBuilder);
+                }
+
+                @Bean(name = "testRestTemplateReactiveWrongPassword")
+                public TestRestTemplate testRestTemplateWrongPasswordCreator(@Value("${local.server.port}") int port) {
+                        RestTemplateBuilder restTemplateBuilder = new RestTemplateBuilder()
+                                        .rootUri("http://localhost:" + port).basicAuthentication("root", "wrong");
+                        return new TestRestTemplate(restTemplateBuilder);
+                }
+        }
+
+        /** O banco é compartilhado pelos testes da classe, então é limpo antes de cada um */
+        @BeforeEach
+        void setup() {
+                this.animeRepository.deleteAll();
+                this.userRepository.deleteAll();
+                this.userRepository.save(User.builder().username("root")
+                                .password("{bcrypt}$2a$04$bQ120F37vJ8ahyX3Kh3CGeMMdz7YHFsXMe5gzDfRrIqXnMpip2n2a")
+                                .roles(Set.of("ROLE_USER")).build());
+        }
+
+        @Test
+        @DisplayName("list walks through all animes using afterId when successful")
+        void list_WalksThroughAllAnimesUsingAfterId_WhenSuccessful() {
+                Anime first = animeRepository.save(Anime.builder().name("Naruto").build());
+                Anime second = animeRepository.save(Anime.builder().name("Berserk").build());
+                Anime third = animeRepository.save(Anime.builder().name("Bleach").build());
+
+                List<Anime> firstPage = this.getList("/anime/reactive?size=2");
+
+                Assertions.assertThat(firstPage).extracting(Anime::getId).containsExactly(first.getId(), second.getId());
+                Assertions.assertThat(firstPage.get(0).getName()).isEqualTo("Naruto");
+                Assertions.assertThat(firstPage.get(0).getVersion()).isZero();
+
+                List<Anime> secondPage = this.getList("/anime/reactive?size=2&afterId=" + second.getId());
+
+                Assertions.assertThat(secondPage).extracting(Anime::getId).containsExactly(third.getId());
+        }
+
+        @Test
+        @DisplayName("findByName returns only animes with the given name when successful")
+        void findByName_ReturnsOnlyAnimesWithTheGivenName_WhenSuccessful() {
+                animeRepository.save(Anime.builder().name("Naruto").build());
+                Anime berserk = animeRepository.save(Anime.builder().name("Berserk").build());
+
+                List<Anime> animes = this.getList("/anime/reactive/find?name=Berserk");
+
+                Assertions.assertThat(animes).extracting(Anime::getId).containsExactly(berserk.getId());
+        }
+
+        @Test
+        @DisplayName("findById returns anime when successful")
+        void findById_ReturnsAnime_WhenSuccessful() {
+                Anime savedAnime = animeRepository.save(Anime.builder().name("Hajime no Ippo").build());
+
+                ResponseEntity<Anime> response = testRestTemplate.getForEntity("/anime/reactive/{id}", Anime.class,
+                                savedAnime.getId());
+
+                Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+                Assertions.assertThat(response.getBody()).isEqualTo(savedAnime);
+        }
+
+        @Test
+        @DisplayName("findById returns 404 not found when anime is not found")
+        void findById_ReturnsNotFound_WhenAnimeIsNotFound() {
+                ResponseEntity<String> response = testRestTemplate.getForEntity("/anime/reactive/{id}", String.class, 999L);
+
+                Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+                Assertions.assertThat(response.getBody()).contains("Anime not found");
+        }
+
+        @Test
+        @DisplayName("list returns 400 bad request when size is out of range")
+        void list_ReturnsBadRequest_WhenSizeIsOutOfRange() {
+                ResponseEntity<String> response = testRestTemplate.getForEntity("/anime/reactive?size=101", String.class);
+
+                Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+
+        @Test
+        @DisplayName("list returns 401 unauthorized when the password is wrong")
+        void list_ReturnsUnauthorized_WhenThePasswordIsWrong() {
+                ResponseEntity<String> response = wrongPasswordRestTemplate.getForEntity("/anime/reactive", String.class);
+
+                Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        }
+
+        private List<Anime> getList(String url) {
+                return testRestTemplate.exchange(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<Anime>>() {
+                }).getBody();
+        }
+}
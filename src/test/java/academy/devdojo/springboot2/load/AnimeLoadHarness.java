@@ -0,0 +1,497 @@
+package academy.devdojo.springboot2.load;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.domain.User;
+import academy.devdojo.springboot2.repository.AnimeRepository;
+import academy.devdojo.springboot2.repository.UserRepository;
+import academy.devdojo.springboot2.search.AnimeSearchIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Teste de carga de ponta a ponta: sobe a aplicação em uma porta aleatória com o
+ * H2 em memória (com o pool do Hikari, como em produção), grava os animes e
+ * usuários e dispara a mistura de requisições configurada a partir de vários
+ * clientes autenticados ao mesmo tempo. No fim imprime, por endpoint, a vazão e
+ * os percentis p50/p99/p999 medidos com HdrHistogram, e grava o mesmo relatório
+ * em target/load-report.txt.
+ *
+ * O relatório traz também o heap: o pico durante a medição, o que continua vivo
+ * depois de um GC ao fim dela (comparado com o início) e as sessões HTTP abertas
+ * no Tomcat. Cliente e servidor estão na mesma JVM, então os números servem para
+ * comparar execuções entre si, não como o heap absoluto do servidor.
+ *
+ * Rode com: mvn -P load-tests test
+ *
+ * Tudo é configurado por propriedades de sistema (-D), por exemplo:
+ * -Dload.clients=256 -Dload.duration-seconds=60 -Dload.mix=get:80,list:20
+ *
+ * Operações da mistura: list, find, get, search, post, bulk, put, delete,
+ * reactive-list, reactive-find e reactive-get.
+ *
+ * Comparações que o harness cobre:
+ * - httpBasic x token (req/s e heap): -Dload.auth=token -Dsecurity.token.enabled=true -Dsecurity.token.secret=...
+ *   Sem o token cada requisição sem cookie cria uma HttpSession, que aparece em
+ *   "sessions" e no heap retido.
+ * - POST unitário x lote: -Dload.mix=post:100 contra -Dload.mix=bulk:100 -Dload.bulk-size=500
+ * - bloqueante x reativo: -Dload.mix=get:100 contra -Dload.mix=reactive-get:100 -Danime.reactive.enabled=true
+ * - banco lento e virtual threads (Java 21+): -Dload.db-latency-ms=50 -Dload.clients=1000
+ *   com e sem -Dspring.threads.virtual.enabled=true (aumente também
+ *   spring.datasource.hikari.maximum-pool-size, senão o gargalo é o pool)
+ *
+ * Os clientes trabalham em loop fechado (sem pausa entre requisições): os
+ * percentis são o tempo de resposta com load.clients requisições em andamento.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:anime_load;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "anime.reactive.url=r2dbc:h2:mem:///anime_load;DB_CLOSE_DELAY=-1",
+        "anime.reactive.username=sa",
+        "anime.reactive.password=",
+        "logging.level.org.hibernate.SQL=info" })
+@Log4j2
+class AnimeLoadHarness {
+
+    private static final String PASSWORD = "load";
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    /** Liga a latência artificial do banco apenas depois da carga inicial */
+    private static volatile boolean delayingStatements;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Value("${load.animes:10000}")
+    private int animes;
+
+    @Value("${load.users:50}")
+    private int users;
+
+    @Value("${load.clients:64}")
+    private int clients;
+
+    @Value("${load.warmup-seconds:10}")
+    private int warmupSeconds;
+
+    @Value("${load.duration-seconds:30}")
+    private int durationSeconds;
+
+    @Value("${load.mix:list:25,find:15,get:35,search:5,post:5,put:10,delete:5}")
+    private String mix;
+
+    @Value("${load.auth:basic}")
+    private String auth;
+
+    @Value("${load.bulk-size:100}")
+    private int bulkSize;
+
+    @Value("${load.max-error-rate:0.01}")
+    private double maxErrorRate;
+
+    @Value("${load.db-latency-ms:0}")
+    private long dbLatencyMs;
+
+    @Autowired
+    private AnimeRepository animeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AnimeSearchIndex searchIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10)).build();
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+    private long[] seededIds;
+    private List<String> authorizations;
+
+    @TestConfiguration
+    static class Config {
+        /** Simula um MySQL lento: cada comando SQL espera load.db-latency-ms antes de executar */
+        @Bean
+        static BeanPostProcessor delayedDataSourcePostProcessor(@Value("${load.db-latency-ms:0}") long latencyMs) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return latencyMs > 0 && bean instanceof DataSource
+                            ? delayed(DataSource.class, (DataSource) bean, latencyMs)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        this.seed();
+        this.authorizations = new ArrayList<>();
+        for (int i = 0; i < this.users; i++) {
+            this.authorizations.add(this.authorization("load" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("anime endpoints keep the error rate below the limit under concurrent load")
+    void animeEndpoints_KeepErrorRateBelowLimit_UnderConcurrentLoad() throws Exception {
+        Operation[] weightedMix = parseMix(this.mix);
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+
+        delayingStatements = true;
+        try {
+            this.run(weightedMix, stats, this.warmupSeconds);
+            stats.values().forEach(Stats::reset);
+            long retainedBefore = retainedHeap();
+            ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+            long elapsedNanos = this.run(weightedMix, stats, this.durationSeconds);
+            long peak = peakHeap();
+            String report = this.report(stats, elapsedNanos)
+                    + String.format("heap: peak=%.1fMB retained before=%.1fMB after=%.1fMB sessions=%.0f%n",
+                            mb(peak), mb(retainedBefore), mb(retainedHeap()), this.activeSessions());
+            log.info("\n{}", report);
+            Path reportFile = Paths.get("target", "load-report.txt");
+            Files.createDirectories(reportFile.getParent());
+            Files.write(reportFile, report.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            delayingStatements = false;
+        }
+
+        long requests = stats.values().stream().mapToLong(stat -> stat.histogram.getTotalCount()).sum();
+        long errors = stats.values().stream().mapToLong(stat -> stat.errors.sum()).sum();
+        Assertions.assertThat(requests).isPositive();
+        Assertions.assertThat((double) errors / requests).isLessThanOrEqualTo(this.maxErrorRate);
+    }
+
+    /** Cada cliente repete requisições até o fim do período; devolve o tempo decorrido */
+    private long run(Operation[] weightedMix, Map<Operation, Stats> stats, int seconds) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(this.clients);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        for (int client = 0; client < this.clients; client++) {
+            String authorization = this.authorizations.get(client % this.authorizations.size());
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    this.execute(weightedMix[random.nextInt(weightedMix.length)], authorization, stats);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        return System.nanoTime() - start;
+    }
+
+    private void execute(Operation operation, String authorization, Map<Operation, Stats> stats) {
+        Long createdId = null;
+        if (operation == Operation.DELETE) {
+            createdId = this.createdIds.poll();
+            if (createdId == null) {
+                /** Só apaga animes criados pelo próprio teste; sem nenhum, cria um */
+                operation = Operation.POST;
+            }
+        }
+        Stats stat = stats.get(operation);
+        HttpRequest request = this.request(operation, authorization, createdId);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            stat.histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            if (response.statusCode() >= 300) {
+                stat.errors.increment();
+            } else if (operation == Operation.POST) {
+                this.createdIds.add(this.objectMapper.readTree(response.body()).get("id").asLong());
+            }
+        } catch (IOException e) {
+            stat.histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            stat.errors.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpRequest request(Operation operation, String authorization, Long createdId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(this.seededIds.length);
+        long id = this.seededIds[index];
+        String name = encode(animeName(index));
+        switch (operation) {
+            case LIST:
+                return this.get("/anime?page=" + random.nextInt(Math.max(1, this.animes / 20)) + "&size=20", authorization);
+            case FIND:
+                return this.get("/anime/find?name=" + name, authorization);
+            case GET:
+                return this.get("/anime/" + id, authorization);
+            case SEARCH:
+                return this.get("/anime/search?q=" + encode("anime " + index / 10), authorization);
+            case POST:
+                return this.send("POST", "/anime", Map.of("name", "Load " + random.nextLong()), authorization);
+            case BULK:
+                return this.send("POST", "/anime/admin/bulk", IntStream.range(0, this.bulkSize)
+                        .mapToObj(i -> Map.of("name", "Load " + random.nextLong())).collect(Collectors.toList()),
+                        authorization);
+            case PUT:
+                return this.send("PUT", "/anime", Map.of("id", id, "name", animeName(index)), authorization);
+            case DELETE:
+                return this.builder("/anime/" + createdId, authorization).DELETE().build();
+            case REACTIVE_LIST:
+                return this.get("/anime/reactive?size=20&afterId=" + this.seededIds[random.nextInt(this.seededIds.length)],
+                        authorization);
+            case REACTIVE_FIND:
+                return this.get("/anime/reactive/find?name=" + name, authorization);
+            case REACTIVE_GET:
+                return this.get("/anime/reactive/" + id, authorization);
+            default:
+                throw new IllegalArgumentException(operation.name());
+        }
+    }
+
+    private HttpRequest get(String path, String authorization) {
+        return this.builder(path, authorization).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, Object body, String authorization) {
+        try {
+            return this.builder(path, authorization).header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(this.objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder builder(String path, String authorization) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + path))
+                .header("Authorization", authorization).timeout(Duration.ofSeconds(60));
+    }
+
+    /** Grava os animes em lotes e os usuários com USER e ADMIN (o bcrypt de custo 4 é só para a carga) */
+    private void seed() {
+        this.seededIds = new long[this.animes];
+        for (int from = 0; from < this.animes; from += SEED_BATCH_SIZE) {
+            int offset = from;
+            List<Anime> saved = this.animeRepository.saveAll(IntStream.range(from, Math.min(from + SEED_BATCH_SIZE, this.animes))
+                    .mapToObj(i -> Anime.builder().name(animeName(i)).build()).collect(Collectors.toList()));
+            for (int i = 0; i < saved.size(); i++) {
+                this.seededIds[offset + i] = saved.get(i).getId();
+                this.searchIndex.index(saved.get(i));
+            }
+        }
+        String password = "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD);
+        this.userRepository.saveAll(IntStream.range(0, this.users)
+                .mapToObj(i -> User.builder().username("load" + i).password(password)
+                        .roles(Set.of("ROLE_USER", "ROLE_ADMIN")).build())
+                .collect(Collectors.toList()));
+    }
+
+    private String authorization(String username) throws IOException, InterruptedException {
+        if (!"token".equals(this.auth)) {
+            return "Basic " + Base64.getEncoder()
+                    .encodeToString((username + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+        }
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(
+                        this.objectMapper.writeValueAsBytes(Map.of("username", username, "password", PASSWORD))))
+                .build();
+        HttpResponse<String> response = this.httpClient.send(login, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with status " + response.statusCode()
+                    + ", is security.token.enabled=true?");
+        }
+        return "Bearer " + this.objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private String report(Map<Operation, Stats> stats, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("clients=%d duration=%ds animes=%d auth=%s db-latency=%dms mix=%s%n",
+                this.clients, this.durationSeconds, this.animes, this.auth, this.dbLatencyMs, this.mix));
+        report.append(String.format("%-14s %10s %8s %10s %9s %9s %9s %9s%n", "endpoint", "requests", "errors",
+                "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().histogram;
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += entry.getValue().errors.sum();
+            appendLine(report, entry.getKey().key, histogram, entry.getValue().errors.sum(), seconds);
+        }
+        appendLine(report, "total", total, totalErrors, seconds);
+        return report.toString();
+    }
+
+    private static void appendLine(StringBuilder report, String endpoint, Histogram histogram, long errors,
+            double seconds) {
+        report.append(String.format("%-14s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint,
+                histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0));
+    }
+
+    /** Heap ocupado depois de um GC completo: o que a aplicação mantém vivo */
+    private static long retainedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /** Soma dos picos de cada área do heap desde o último resetPeakUsage */
+    private static long peakHeap() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream().filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    /** Gauge do Tomcat publicado pelo actuator; zero quando a aplicação não usa sessões */
+    private double activeSessions() {
+        Gauge sessions = this.meterRegistry.find("tomcat.sessions.active.current").gauge();
+        return sessions != null ? sessions.value() : 0;
+    }
+
+    /** "get:70,list:30" vira um array com 70 GETs e 30 LISTs, sorteado a cada requisição */
+    private static Operation[] parseMix(String mix) {
+        List<Operation> weighted = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            Operation operation = Operation.of(parts[0].trim());
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        }
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("load.mix is empty");
+        }
+        return weighted.toArray(new Operation[0]);
+    }
+
+    private static String animeName(int index) {
+        return "Anime " + index;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T delayed(Class<T> type, T target, long latencyMs) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (delayingStatements && method.getName().startsWith("execute")) {
+                Thread.sleep(latencyMs);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection && type != Connection.class) {
+                return delayed(Connection.class, (Connection) result, latencyMs);
+            }
+            if (result instanceof PreparedStatement && type == Connection.class) {
+                return delayed(PreparedStatement.class, (PreparedStatement) result, latencyMs);
+            }
+            if (result instanceof Statement && type == Connection.class) {
+                return delayed(Statement.class, (Statement) result, latencyMs);
+            }
+            return result;
+        });
+    }
+
+    private enum Operation {
+        LIST("list"), FIND("find"), GET("get"), SEARCH("search"), POST("post"), BULK("bulk"), PUT("put"),
+        DELETE("delete"), REACTIVE_LIST("reactive-list"), REACTIVE_FIND("reactive-find"), REACTIVE_GET("reactive-get");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation in load.mix: " + key);
+        }
+    }
+
+    private static class Stats {
+        private final Histogram histogram = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+
+        void reset() {
+            this.histogram.reset();
+            this.errors.reset();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package academy.devdojo.springboot2.logging;
+
+import java.util.stream.IntStream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+
+class SqlLogSamplingFilterTest {
+
+    private SqlLogSamplingFilter filter;
+    private Logger sqlLogger;
+    private Logger otherLogger;
+
+    @BeforeEach
+    void setup() {
+        LoggerContext context = new LoggerContext();
+        this.sqlLogger = context.getLogger("org.hibernate.SQL");
+        this.otherLogger = context.getLogger("academy.devdojo.springboot2");
+        this.filter = new SqlLogSamplingFilter();
+        this.filter.setSampleRate(10);
+        this.filter.setMaxPerSecond(1000);
+        this.filter.start();
+    }
+
+    @Test
+    @DisplayName("decide lets one in sampleRate statements through when the logger is the SQL logger")
+    void decide_LetsOneInSampleRateStatementsThrough_WhenLoggerIsTheSqlLogger() {
+        long written = IntStream.range(0, 100).mapToObj(i -> this.decide(this.sqlLogger, "select " + i))
+                .filter(reply -> reply == FilterReply.NEUTRAL).count();
+
+        Assertions.assertThat(written).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("decide stops at maxPerSecond when statements arrive faster than the limit")
+    void decide_StopsAtMaxPerSecond_WhenStatementsArriveFasterThanTheLimit() {
+        this.filter.setSampleRate(1);
+        this.filter.setMaxPerSecond(5);
+
+        long written = IntStream.range(0, 50).mapToObj(i -> this.decide(this.sqlLogger, "select " + i))
+                .filter(reply -> reply == FilterReply.NEUTRAL).count();
+
+        /** Se o segundo virar no meio do teste passam no máximo mais 5 */
+        Assertions.assertThat(written).isBetween(5L, 10L);
+    }
+
+    @Test
+    @DisplayName("decide is neutral for isDebugEnabled checks and for other loggers")
+    void decide_IsNeutral_ForIsDebugEnabledChecksAndOtherLoggers() {
+        IntStream.range(0, 100).forEach(i -> {
+            Assertions.assertThat(this.decide(this.sqlLogger, null)).isEqualTo(FilterReply.NEUTRAL);
+            Assertions.assertThat(this.decide(this.otherLogger, "list")).isEqualTo(FilterReply.NEUTRAL);
+        });
+    }
+
+    private FilterReply decide(Logger logger, String format) {
+        return this.filter.decide(null, logger, Level.DEBUG, format, null, null);
+    }
+}
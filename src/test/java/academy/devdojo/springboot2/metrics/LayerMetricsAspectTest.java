@@ -0,0 +1,83 @@
+package academy.devdojo.springboot2.metrics;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import academy.devdojo.springboot2.controller.AnimeController;
+import academy.devdojo.springboot2.exception.NotFoundException;
+import academy.devdojo.springboot2.service.AnimeBulkService;
+import academy.devdojo.springboot2.service.AnimeImportService;
+import academy.devdojo.springboot2.service.AnimeService;
+import academy.devdojo.springboot2.util.AnimeCreator;
+import academy.devdojo.springboot2.util.DateUtil;
+import academy.devdojo.springboot2.util.HttpCachePolicy;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(SpringExtension.class)
+class LayerMetricsAspectTest {
+
+    @Mock
+    private AnimeService service;
+
+    @Mock
+    private AnimeBulkService bulkService;
+
+    @Mock
+    private AnimeImportService importService;
+
+    @Mock
+    private DateUtil dateUtil;
+
+    private SimpleMeterRegistry registry;
+    private AnimeController animeController;
+
+    @BeforeEach
+    void setup() {
+        this.registry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(
+                new AnimeController(this.service, this.bulkService, this.importService, this.dateUtil,
+                        new HttpCachePolicy(0, 0)));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new LayerMetricsAspect(this.registry));
+        this.animeController = proxyFactory.getProxy();
+    }
+
+    @Test
+    @DisplayName("timeController records a SUCCESS call tagged with layer, class and method when successful")
+    void timeController_RecordsSuccessCallTaggedWithLayerClassAndMethod_WhenSuccessful() {
+        BDDMockito.when(this.service.findByIdOrThrowNotFoundException(ArgumentMatchers.anyLong()))
+                .thenReturn(AnimeCreator.createValidAnime());
+
+        this.animeController.findById(1L, (String) null);
+
+        Timer timer = this.registry.find(LayerMetricsAspect.METRIC_NAME).tag("layer", "controller")
+                .tag("class", "AnimeController").tag("method", "findById").tag("outcome", "SUCCESS")
+                .tag("exception", "none").timer();
+        Assertions.assertThat(timer).isNotNull();
+        Assertions.assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("timeController records a CLIENT_ERROR call with the exception name when NotFoundException is thrown")
+    void timeController_RecordsClientErrorCallWithExceptionName_WhenNotFoundExceptionIsThrown() {
+        BDDMockito.when(this.service.findByIdOrThrowNotFoundException(ArgumentMatchers.anyLong()))
+                .thenThrow(new NotFoundException("Anime not found"));
+
+        Assertions.assertThatExceptionOfType(NotFoundException.class)
+                .isThrownBy(() -> this.animeController.findById(1L, (String) null));
+
+        Timer timer = this.registry.find(LayerMetricsAspect.METRIC_NAME).tag("outcome", "CLIENT_ERROR")
+                .tag("exception", "NotFoundException").timer();
+        Assertions.assertThat(timer).isNotNull();
+        Assertions.assertThat(timer.count()).isEqualTo(1);
+    }
+}
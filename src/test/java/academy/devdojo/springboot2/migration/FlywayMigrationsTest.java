@@ -0,0 +1,112 @@
+package academy.devdojo.springboot2.migration;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.assertj.core.api.Assertions;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Roda as migrações do H2 com a mesma configuração do application.yml
+ * (baseline-on-migrate na versão 1) sobre um banco vazio e sobre um banco
+ * criado pela aplicação antes das migrações, quando o esquema vinha do
+ * ddl-auto: update.
+ */
+class FlywayMigrationsTest {
+
+    private String url;
+    private Connection connection;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        this.url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        this.connection = DriverManager.getConnection(this.url, "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        this.execute("shutdown");
+        this.connection.close();
+    }
+
+    @Test
+    @DisplayName("migrate upgrades the schema when the database was created by ddl-auto update")
+    void migrate_UpgradesSchema_WhenDatabaseWasCreatedByDdlAutoUpdate() throws SQLException {
+        this.execute("create table anime (id bigint auto_increment not null, name varchar(255), primary key (id))");
+        this.execute("create table user (id bigint auto_increment not null, authorities varchar(255),"
+                + " password varchar(255), username varchar(255), primary key (id))");
+        this.execute("insert into anime (name) values ('Naruto'), ('Boruto'), ('Hunter x Hunter')");
+        this.execute("insert into user (username, password, authorities) values ('devdojo', '{noop}x', 'ROLE_USER,ROLE_ADMIN')");
+
+        this.migrate();
+
+        Assertions.assertThat(this.queryLong("select next value for anime_seq")).isEqualTo(4L);
+        Assertions.assertThat(this.queryStrings("select role from user_role order by role"))
+                .containsExactly("ROLE_ADMIN", "ROLE_USER");
+        this.assertMigratedSchema();
+    }
+
+    @Test
+    @DisplayName("migrate creates the whole schema when the database is empty")
+    void migrate_CreatesSchema_WhenDatabaseIsEmpty() throws SQLException {
+        this.migrate();
+
+        Assertions.assertThat(this.queryLong("select next value for anime_seq")).isEqualTo(1L);
+        this.assertMigratedSchema();
+    }
+
+    private void assertMigratedSchema() throws SQLException {
+        Assertions.assertThat(this.queryStrings("select index_name from information_schema.indexes"))
+                .contains("IDX_ANIME_NAME_ID", "UX_USER_USERNAME");
+        Assertions.assertThat(this.queryStrings("select column_name from information_schema.columns where table_name = 'ANIME'"))
+                .containsExactlyInAnyOrder("ID", "NAME", "VERSION");
+        Assertions.assertThat(this.queryStrings("select column_name from information_schema.columns where table_name = 'USER'"))
+                .doesNotContain("AUTHORITIES");
+        Assertions.assertThat(this.queryStrings("select constraint_name from information_schema.constraints"))
+                .contains("FK_USER_ROLE_USER");
+    }
+
+    private void migrate() {
+        Flyway.configure()
+                .dataSource(this.url, "sa", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2",
+                        "classpath:academy/devdojo/springboot2/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Statement statement = this.connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private List<String> queryStrings(String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (Statement statement = this.connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            while (result.next()) {
+                values.add(result.getString(1));
+            }
+        }
+        return values;
+    }
+}
@@ -2,14 +2,20 @@ package academy.devdojo.springboot2.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
 import javax.validation.ConstraintViolationException;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import academy.devdojo.springboot2.domain.Anime;
 
@@ -19,6 +25,9 @@ public class AnimeRepositoryTest {
     @Autowired
     private AnimeRepository repository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     @DisplayName("Save persist anime when successful")
     public void save_PersistAnime_WhenSuccessful() {
@@ -84,12 +93,46 @@ public class AnimeRepositoryTest {
 
     }
 
+    @Test
+    @DisplayName("streamAll and streamIdAndName read every anime in id order when successful")
+    public void streamAllAndStreamIdAndName_ReadEveryAnime_WhenSuccessful() {
+        Anime first = this.repository.save(Anime.builder().name("Naruto").build());
+        Anime second = this.repository.save(Anime.builder().name("Boruto").build());
+        this.repository.flush();
+        this.entityManager.clear();
+
+        try (Stream<Anime> animes = this.repository.streamAll()) {
+            Assertions.assertThat(animes.map(Anime::getId).collect(Collectors.toList()))
+                    .containsExactly(first.getId(), second.getId());
+        }
+        try (Stream<Object[]> rows = this.repository.streamIdAndName()) {
+            Assertions.assertThat(rows.map(row -> row[1]).collect(Collectors.toList()))
+                    .containsExactlyInAnyOrder("Naruto", "Boruto");
+        }
+    }
+
+    @Test
+    @DisplayName("findSummarySliceByName returns id and name without managed entities when successful")
+    public void findSummarySliceByName_ReturnsIdAndNameWithoutManagedEntities_WhenSuccessful() {
+        Anime animeSaved = this.repository.save(this.createAnime());
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        Slice<AnimeSummary> summaries = this.repository.findSummarySliceByName(animeSaved.getName(), PageRequest.of(0, 5));
+
+        Assertions.assertThat(summaries.getContent()).hasSize(1);
+        Assertions.assertThat(summaries.getContent().get(0).getId()).isEqualTo(animeSaved.getId());
+        Assertions.assertThat(summaries.getContent().get(0).getName()).isEqualTo(animeSaved.getName());
+        Assertions.assertThat(this.entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
     @Test
     @DisplayName("Throws ConstraintViolationException when name is empty or null")
     public void save_ThrowsConstraintViolationException_WhenNameIsEmpty() {
         Anime anime = new Anime();
+        /** Com o id vindo de uma sequence o INSERT, e com ele a validação, só acontece no flush */
         Assertions.assertThatExceptionOfType(ConstraintViolationException.class)
-                .isThrownBy(() -> this.repository.save(anime))
+                .isThrownBy(() -> this.repository.saveAndFlush(anime))
                 .withMessageContaining("The anime name cannot be empty");
     }
 
@@ -0,0 +1,42 @@
+package academy.devdojo.springboot2.repository;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+
+class AnimeStreamRepositoryImplTest {
+
+    @Test
+    @DisplayName("defaultFetchSize streams row by row on MySQL and uses blocks on other databases")
+    void defaultFetchSize_StreamsRowByRowOnMySql_AndUsesBlocksOnOtherDatabases() throws SQLException {
+        Assertions.assertThat(AnimeStreamRepositoryImpl.defaultFetchSize(dataSource("MySQL"))).isEqualTo(Integer.MIN_VALUE);
+        Assertions.assertThat(AnimeStreamRepositoryImpl.defaultFetchSize(dataSource("H2"))).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("defaultFetchSize uses blocks when the database metadata cannot be read")
+    void defaultFetchSize_UsesBlocks_WhenMetadataCannotBeRead() throws SQLException {
+        DataSource dataSource = Mockito.mock(DataSource.class);
+        BDDMockito.when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        Assertions.assertThat(AnimeStreamRepositoryImpl.defaultFetchSize(dataSource)).isEqualTo(1000);
+    }
+
+    private static DataSource dataSource(String productName) throws SQLException {
+        DatabaseMetaData metaData = Mockito.mock(DatabaseMetaData.class);
+        BDDMockito.when(metaData.getDatabaseProductName()).thenReturn(productName);
+        Connection connection = Mockito.mock(Connection.class);
+        BDDMockito.when(connection.getMetaData()).thenReturn(metaData);
+        DataSource dataSource = Mockito.mock(DataSource.class);
+        BDDMockito.when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
@@ -0,0 +1,114 @@
+package academy.devdojo.springboot2.repository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.domain.User;
+
+/**
+ * Confere no plano de execução do H2 (EXPLAIN) que as consultas mais frequentes
+ * usam os índices criados pelas migrações, em vez de varrer a tabela. O SQL
+ * analisado é o que o Hibernate gerou para os métodos do repositório, capturado
+ * pelo StatementInspector.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "academy.devdojo.springboot2.repository.QueryPlanTest$CapturingStatementInspector")
+class QueryPlanTest {
+
+    @Autowired
+    private AnimeRepository animeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setup() {
+        this.animeRepository.saveAll(IntStream.range(0, 200)
+                .mapToObj(i -> Anime.builder().name("Anime " + i).build())
+                .collect(Collectors.toList()));
+        IntStream.range(0, 50).forEach(i -> this.userRepository.save(User.builder().username("user" + i)
+                .password("{noop}test").roles(Set.of("ROLE_USER")).build()));
+        this.entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("findSliceByName uses the anime name index")
+    void findSliceByName_UsesAnimeNameIndex() {
+        String sql = this.capture(() -> this.animeRepository.findSliceByName("Anime 7", PageRequest.of(0, 5, Sort.by("id"))),
+                "where anime0_.name=?");
+
+        String plan = this.explain(sql, "Anime 7", 6);
+
+        Assertions.assertThat(plan).containsIgnoringCase("idx_anime_name_id").doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("findByUsername uses the unique username index")
+    void findByUsername_UsesUniqueUsernameIndex() {
+        String sql = this.capture(() -> this.userRepository.findByUsername("user7"), "username=?");
+
+        String plan = this.explain(sql, "user7");
+
+        Assertions.assertThat(plan).containsIgnoringCase("ux_user_username");
+    }
+
+    @Test
+    @DisplayName("username unique index rejects duplicated usernames")
+    void save_ThrowsException_WhenUsernameIsDuplicated() {
+        Assertions.assertThatThrownBy(() -> {
+            this.userRepository.save(User.builder().username("user7").password("{noop}test").build());
+            this.entityManager.flush();
+        }).isInstanceOfAny(DataIntegrityViolationException.class, PersistenceException.class);
+    }
+
+    /** Executa a consulta e devolve o SQL gerado que contém o trecho informado */
+    private String capture(Runnable query, String fragment) {
+        this.entityManager.clear();
+        CapturingStatementInspector.STATEMENTS.clear();
+        query.run();
+        return CapturingStatementInspector.STATEMENTS.stream().filter(sql -> sql.contains(fragment)).findFirst()
+                .orElseThrow(() -> new AssertionError("No statement with " + fragment + " in "
+                        + CapturingStatementInspector.STATEMENTS));
+    }
+
+    private String explain(String sql, Object... parameters) {
+        Query explain = this.entityManager.createNativeQuery("explain " + sql);
+        for (int i = 0; i < parameters.length; i++) {
+            explain.setParameter(i + 1, parameters[i]);
+        }
+        return String.valueOf(explain.getSingleResult());
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package academy.devdojo.springboot2.search;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import academy.devdojo.springboot2.responses.AnimeSearchHit;
+
+class AnimeSearchIndexTest {
+
+    private AnimeSearchIndex searchIndex;
+
+    @BeforeEach
+    void setup() {
+        this.searchIndex = new AnimeSearchIndex();
+        this.searchIndex.index(1L, "Naruto");
+        this.searchIndex.index(2L, "Naruto Shippūden");
+        this.searchIndex.index(3L, "Boruto: Naruto Next Generations");
+        this.searchIndex.index(4L, "Shingeki no Kyojin");
+        this.searchIndex.index(5L, "Hunter x Hunter");
+    }
+
+    @Test
+    @DisplayName("search ranks exact match first when query is the whole name")
+    void search_RanksExactMatchFirst_WhenQueryIsTheWholeName() {
+        List<AnimeSearchHit> hits = this.searchIndex.search("naruto", 10);
+
+        Assertions.assertThat(hits).extracting(AnimeSearchHit::getId).startsWith(1L, 2L).contains(3L)
+                .doesNotContain(4L, 5L);
+    }
+
+    @Test
+    @DisplayName("search finds the anime when query has a typo")
+    void search_FindsAnime_WhenQueryHasATypo() {
+        Assertions.assertThat(this.searchIndex.search("shingeki no kyoijn", 10)).extracting(AnimeSearchHit::getId)
+                .containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("search finds names by word prefix ignoring case and accents")
+    void search_FindsNamesByWordPrefix_IgnoringCaseAndAccents() {
+        Assertions.assertThat(this.searchIndex.search("SHIPPU", 10)).extracting(AnimeSearchHit::getId)
+                .containsExactly(2L);
+        Assertions.assertThat(this.searchIndex.search("hun", 10)).extracting(AnimeSearchHit::getId)
+                .containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("search respects the limit and returns empty list when query is blank")
+    void search_RespectsLimit_AndReturnsEmptyListWhenQueryIsBlank() {
+        Assertions.assertThat(this.searchIndex.search("naruto", 1)).hasSize(1);
+        Assertions.assertThat(this.searchIndex.search(" ?! ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("index replaces the old name and remove drops the anime")
+    void index_ReplacesOldName_AndRemoveDropsTheAnime() {
+        this.searchIndex.index(5L, "Hunter x Hunter (2011)");
+        this.searchIndex.remove(1L);
+
+        Assertions.assertThat(this.searchIndex.size()).isEqualTo(4);
+        Assertions.assertThat(this.searchIndex.search("hunter 2011", 10)).extracting(AnimeSearchHit::getName)
+                .containsExactly("Hunter x Hunter (2011)");
+        Assertions.assertThat(this.searchIndex.search("naruto", 10)).extracting(AnimeSearchHit::getId)
+                .doesNotContain(1L);
+    }
+
+    @Test
+    @DisplayName("remove keeps search results correct before and after the postings are compacted")
+    void remove_KeepsResultsCorrect_WhenPostingsAreCompacted() {
+        for (long id = 100; id < 3100; id++) {
+            this.searchIndex.index(id, "Naruto Filler " + id);
+        }
+        for (long id = 100; id < 3100; id++) {
+            this.searchIndex.remove(id);
+        }
+        this.searchIndex.index(6L, "Naruto the Movie");
+
+        Assertions.assertThat(this.searchIndex.size()).isEqualTo(6);
+        Assertions.assertThat(this.searchIndex.search("naruto", 10)).extracting(AnimeSearchHit::getId)
+                .containsExactlyInAnyOrder(1L, 2L, 3L, 6L);
+    }
+
+    @Test
+    @DisplayName("rebuild replaces the index and keeps the writes made while it was loading")
+    void rebuild_ReplacesIndex_AndKeepsWritesMadeDuringTheLoad() {
+        this.searchIndex.rebuild(rebuilt -> {
+            rebuilt.index(1L, "Naruto");
+            rebuilt.index(7L, "Fullmetal Alchemist");
+            this.searchIndex.index(8L, "Fullmetal Alchemist: Brotherhood");
+            this.searchIndex.remove(1L);
+        });
+
+        Assertions.assertThat(this.searchIndex.size()).isEqualTo(2);
+        Assertions.assertThat(this.searchIndex.search("fullmetal", 10)).extracting(AnimeSearchHit::getId)
+                .containsExactlyInAnyOrder(7L, 8L);
+        Assertions.assertThat(this.searchIndex.search("naruto", 10)).isEmpty();
+    }
+}
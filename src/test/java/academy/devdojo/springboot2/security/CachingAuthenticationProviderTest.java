@@ -0,0 +1,73 @@
+package academy.devdojo.springboot2.security;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(SpringExtension.class)
+public class CachingAuthenticationProviderTest {
+
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private CredentialCache credentialCache;
+
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        this.credentialCache = new CredentialCache(new SimpleMeterRegistry(), 100, 60);
+        this.provider = new CachingAuthenticationProvider(this.delegate, this.credentialCache);
+        BDDMockito.when(this.delegate.authenticate(ArgumentMatchers.any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken("root", "root",
+                        List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @Test
+    @DisplayName("authenticate skips delegate when credentials were already verified")
+    public void authenticate_SkipsDelegate_WhenCredentialsWereAlreadyVerified() {
+        this.provider.authenticate(new UsernamePasswordAuthenticationToken("root", "root"));
+        Authentication authentication = this.provider.authenticate(new UsernamePasswordAuthenticationToken("root", "root"));
+
+        Assertions.assertThat(authentication.isAuthenticated()).isTrue();
+        Assertions.assertThat(authentication.getPrincipal()).isEqualTo("root");
+        Mockito.verify(this.delegate, Mockito.times(1)).authenticate(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("authenticate calls delegate when password differs from cached one")
+    public void authenticate_CallsDelegate_WhenPasswordDiffersFromCachedOne() {
+        this.provider.authenticate(new UsernamePasswordAuthenticationToken("root", "root"));
+        BDDMockito.when(this.delegate.authenticate(ArgumentMatchers.any()))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        Assertions.assertThatExceptionOfType(BadCredentialsException.class)
+                .isThrownBy(() -> this.provider.authenticate(new UsernamePasswordAuthenticationToken("root", "wrong")));
+    }
+
+    @Test
+    @DisplayName("authenticate calls delegate again after cache is invalidated")
+    public void authenticate_CallsDelegateAgain_AfterCacheIsInvalidated() {
+        this.provider.authenticate(new UsernamePasswordAuthenticationToken("root", "root"));
+        this.credentialCache.invalidate("root");
+        this.provider.authenticate(new UsernamePasswordAuthenticationToken("root", "root"));
+
+        Mockito.verify(this.delegate, Mockito.times(2)).authenticate(ArgumentMatchers.any());
+    }
+}
@@ -0,0 +1,51 @@
+package academy.devdojo.springboot2.security;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+public class TokenServiceTest {
+
+    private final TokenService tokenService = new TokenService("test-secret", 60);
+
+    @Test
+    @DisplayName("parse returns authentication with username and authorities when token is valid")
+    public void parse_ReturnsAuthentication_WhenTokenIsValid() {
+        String token = this.tokenService.issue(new UsernamePasswordAuthenticationToken("root", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        Authentication authentication = this.tokenService.parse(token);
+
+        Assertions.assertThat(authentication).isNotNull();
+        Assertions.assertThat(authentication.getName()).isEqualTo("root");
+        Assertions.assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("parse returns null when token signature was tampered")
+    public void parse_ReturnsNull_WhenTokenSignatureWasTampered() {
+        String token = this.tokenService.issue(new UsernamePasswordAuthenticationToken("root", null, List.of()));
+        String forged = new TokenService("other-secret", 60)
+                .issue(new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+
+        Assertions.assertThat(this.tokenService.parse(forged)).isNull();
+        Assertions.assertThat(this.tokenService.parse(token + "x")).isNull();
+        Assertions.assertThat(this.tokenService.parse("invalid")).isNull();
+    }
+
+    @Test
+    @DisplayName("parse returns null when token is expired")
+    public void parse_ReturnsNull_WhenTokenIsExpired() {
+        TokenService expiredTokenService = new TokenService("test-secret", -1);
+        String token = expiredTokenService.issue(new UsernamePasswordAuthenticationToken("root", null, List.of()));
+
+        Assertions.assertThat(this.tokenService.parse(token)).isNull();
+    }
+}
@@ -0,0 +1,45 @@
+package academy.devdojo.springboot2.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import academy.devdojo.springboot2.domain.Anime;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AnimeCacheTest {
+
+    private final AnimeCache cache = new AnimeCache(new SimpleMeterRegistry(), 100, 100, 60, 60);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("evictNames drops every page of the given names and keeps the others")
+    void evictNames_DropsPagesOfGivenNames_AndKeepsTheOthers() {
+        for (String name : List.of("Naruto", "Boruto", "Hunter x Hunter")) {
+            this.findByName(name, 0);
+            this.findByName(name, 1);
+        }
+
+        this.cache.evictNames(Set.of("Naruto", "Boruto"));
+        for (String name : List.of("Naruto", "Boruto", "Hunter x Hunter")) {
+            this.findByName(name, 0);
+            this.findByName(name, 1);
+        }
+
+        Assertions.assertThat(this.loads).hasValue(6 + 4);
+    }
+
+    private Page<Anime> findByName(String name, int page) {
+        return this.cache.findByName(name, PageRequest.of(page, 10), () -> {
+            this.loads.incrementAndGet();
+            return new PageImpl<>(List.of(Anime.builder().id(1L).name(name).build()));
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package academy.devdojo.springboot2.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import academy.devdojo.springboot2.domain.Anime;
+import academy.devdojo.springboot2.exception.BadRequestException;
+import academy.devdojo.springboot2.repository.AnimeRepository;
+import academy.devdojo.springboot2.responses.AnimeImportReport;
+import academy.devdojo.springboot2.search.AnimeSearchIndex;
+
+@ExtendWith(SpringExtension.class)
+class AnimeImportServiceTest {
+
+    private AnimeImportService importService;
+
+    @Mock
+    private AnimeRepository repository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AnimeCache cache;
+
+    @Mock
+    private AnimeCounter counter;
+
+    @Mock
+    private AnimeSearchIndex searchIndex;
+
+    @BeforeEach
+    void setup() {
+        /** Executa o callback direto, como se a transação tivesse sido aberta */
+        BDDMockito.when(this.transactionTemplate.execute(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        /** O segundo chunk já enxerga o que foi gravado pelo primeiro */
+        BDDMockito.when(this.repository.findExistingNames(ArgumentMatchers.anyCollection()))
+                .thenReturn(List.of("Berserk"), List.of("Berserk", "Naruto"));
+        this.importService = new AnimeImportService(this.repository, this.transactionTemplate, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), this.cache, this.counter, this.searchIndex, 2, 1, 1);
+        ReflectionTestUtils.setField(this.importService, "entityManager", this.entityManager);
+    }
+
+    @Test
+    @DisplayName("importFrom reports accepted, rejected and duplicate rows when NDJSON has mixed rows")
+    void importFrom_ReportsAcceptedRejectedAndDuplicates_WhenNdjsonHasMixedRows() throws IOException {
+        String body = "{\"name\":\"Naruto\"}\n{\"name\":\"\"}\nnot json\n{\"name\":\"Berserk\"}\n\n{\"name\":\"Naruto\"}\n{\"name\":\"Bleach\"}\n";
+
+        AnimeImportReport report = this.importService.importFrom(toStream(body), AnimeImportService.Format.NDJSON);
+
+        Assertions.assertThat(report.getAccepted()).isEqualTo(2);
+        Assertions.assertThat(report.getRejected()).isEqualTo(2);
+        Assertions.assertThat(report.getDuplicates()).isEqualTo(2);
+        Assertions.assertThat(report.getChunks()).isEqualTo(2);
+        Assertions.assertThat(report.getErrors()).hasSize(2).anyMatch(error -> error.startsWith("line 3:"));
+        BDDMockito.verify(this.entityManager, BDDMockito.times(2)).persist(ArgumentMatchers.any(Anime.class));
+        BDDMockito.verify(this.counter).added("Bleach");
+        BDDMockito.verify(this.cache).evictNames(Set.of("Naruto"));
+        BDDMockito.verify(this.cache).evictNames(Set.of("Bleach"));
+        BDDMockito.verify(this.cache, BDDMockito.never()).evictName(ArgumentMatchers.anyString());
+    }
+
+    @Test
+    @DisplayName("importFrom reads the name column when CSV has quoted fields")
+    void importFrom_ReadsNameColumn_WhenCsvHasQuotedFields() throws IOException {
+        String body = "id,name\n1,\"Hunter x Hunter, 2011\"\n2,\"Say \"\"Hi\"\"\"\n";
+
+        AnimeImportReport report = this.importService.importFrom(toStream(body), AnimeImportService.Format.CSV);
+
+        Assertions.assertThat(report.getAccepted()).isEqualTo(2);
+        Assertions.assertThat(AnimeImportService.parseCsvFields("2,\"Say \"\"Hi\"\"\""))
+                .containsExactly("2", "Say \"Hi\"");
+        BDDMockito.verify(this.counter).added("Hunter x Hunter, 2011");
+    }
+
+    @Test
+    @DisplayName("importFrom throws BadRequestException when CSV header has no name column")
+    void importFrom_ThrowsBadRequestException_WhenCsvHeaderHasNoNameColumn() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> this.importService.importFrom(toStream("id,title\n1,Naruto\n"),
+                        AnimeImportService.Format.CSV));
+    }
+
+    private static ByteArrayInputStream toStream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
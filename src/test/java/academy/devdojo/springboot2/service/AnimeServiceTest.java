@@ -2,9 +2,12 @@ package academy.devdojo.springboot2.service;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,16 +18,26 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import academy.devdojo.springboot2.domain.Anime;
 import academy.devdojo.springboot2.exception.BadRequestException;
+import academy.devdojo.springboot2.exception.NotFoundException;
+import academy.devdojo.springboot2.exception.PreconditionFailedException;
 import academy.devdojo.springboot2.repository.AnimeRepository;
+import academy.devdojo.springboot2.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2.responses.AnimeBatchResponse;
+import academy.devdojo.springboot2.search.AnimeSearchIndex;
 import academy.devdojo.springboot2.util.AnimeCreator;
 import academy.devdojo.springboot2.util.AnimeUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(SpringExtension.class)
 public class AnimeServiceTest {
@@ -35,17 +48,30 @@ public class AnimeServiceTest {
     @Mock
     AnimeRepository repository;
 
+    /** O @Spy usa uma instância real do cache que também é injetada pelo @InjectMocks */
+    @Spy
+    AnimeCache cache = new AnimeCache(new SimpleMeterRegistry(), 100, 100, 60, 60);
+
+    @Mock
+    AnimeCounter counter;
+
+    @Mock
+    AnimeSearchIndex searchIndex;
+
     @BeforeEach
     void setUp() {
-        PageImpl<Anime> anime = new PageImpl<>(List.of(AnimeCreator.createAnimeToBeSaved()));
-        BDDMockito.when(this.repository.findAll(ArgumentMatchers.any(PageRequest.class))).thenReturn(anime);
-        BDDMockito.when(this.repository.findByName(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+        SliceImpl<Anime> anime = new SliceImpl<>(List.of(AnimeCreator.createAnimeToBeSaved()));
+        BDDMockito.when(this.repository.findSliceBy(ArgumentMatchers.any(PageRequest.class))).thenReturn(anime);
+        BDDMockito.when(this.repository.findSliceByName(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
                 .thenReturn(anime);
         BDDMockito.when(this.repository.findById(ArgumentMatchers.anyLong()))
                 .thenReturn(Optional.of(AnimeCreator.createValidAnime()));
         BDDMockito.when(this.repository.save(ArgumentMatchers.any(Anime.class)))
                 .thenReturn(AnimeCreator.createValidAnime());
         BDDMockito.doNothing().when(this.repository).delete(ArgumentMatchers.any(Anime.class));
+        BDDMockito.when(this.repository.updateName(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString()))
+                .thenReturn(1);
+        BDDMockito.when(this.repository.deleteByIdReturningCount(ArgumentMatchers.anyLong())).thenReturn(1);
     }
 
     @Test
@@ -62,7 +88,7 @@ public class AnimeServiceTest {
     @DisplayName("findByName returns list of animes when successful")
     public void findByName_ReturnsListOfAnimes_WhenSuccessful() {
         String expectedName = AnimeCreator.createAnimeToBeSaved().getName();
-        Page<Anime> list = animeService.findByName(expectedName, null);
+        Page<Anime> list = animeService.findByName(expectedName, PageRequest.of(0, 5));
         Assertions.assertThat(list).isNotNull();
         Assertions.assertThat(list.toList()).isNotEmpty().hasSize(1);
         Assertions.assertThat(list.toList().get(0).getName()).isEqualTo(expectedName);
@@ -71,32 +97,139 @@ public class AnimeServiceTest {
     @Test
     @DisplayName("findByName returns empty list of animes when anime name is not found")
     public void findByName_ReturnsEmptyListOfAnimes_WhenAnimeNameIsNotFound() {
-        BDDMockito.when(this.repository.findByName(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
-                .thenReturn(new PageImpl<>(Collections.emptyList()));
+        BDDMockito.when(this.repository.findSliceByName(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
 
-        Page<Anime> list = animeService.findByName("", null);
+        Page<Anime> list = animeService.findByName("", PageRequest.of(0, 5));
 
         Assertions.assertThat(list).isNotNull().isEmpty();
     }
 
     @Test
-    @DisplayName("findByIdOrThrowBadRequestException returns anime when successful")
-    public void findByIdOrThrowBadRequestException_ReturnsAnime_WhenSuccessful() {
+    @DisplayName("listAll takes total elements from counter when there is a next page")
+    public void listAll_TakesTotalElementsFromCounter_WhenThereIsNextPage() {
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        BDDMockito.when(this.repository.findSliceBy(pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(AnimeCreator.createValidAnime()), pageRequest, true));
+        BDDMockito.when(this.counter.total()).thenReturn(42L);
+
+        Page<Anime> page = animeService.listAll(pageRequest);
+
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(42L);
+        Mockito.verify(this.repository, Mockito.never()).count();
+    }
+
+    @Test
+    @DisplayName("listAll does not read counter on last page")
+    public void listAll_DoesNotReadCounter_OnLastPage() {
+        Page<Anime> page = animeService.listAll(PageRequest.of(0, 5));
+
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(1L);
+        Mockito.verify(this.counter, Mockito.never()).total();
+    }
+
+    @Test
+    @DisplayName("findByIdOrThrowNotFoundException returns anime when successful")
+    public void findByIdOrThrowNotFoundException_ReturnsAnime_WhenSuccessful() {
         Long expectedId = AnimeCreator.createValidAnime().getId();
-        Anime anime = animeService.findByIdOrThrowBadRequestException(expectedId);
+        Anime anime = animeService.findByIdOrThrowNotFoundException(expectedId);
         Assertions.assertThat(anime).isNotNull();
         Assertions.assertThat(anime.getId()).isEqualTo(expectedId);
     }
 
     @Test
-    @DisplayName("findByIdOrThrowBadRequestException returns BadRequestException when anime not found")
-    public void findByIdOrThrowBadRequestException_ReturnsBadRequestException_WhenAnimeNotFound() {
+    @DisplayName("findByIdOrThrowNotFoundException returns NotFoundException when anime not found")
+    public void findByIdOrThrowNotFoundException_ReturnsNotFoundException_WhenAnimeNotFound() {
         BDDMockito.when(this.repository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.<Anime>empty());
 
-        Exception thrown = assertThrows(Exception.class, () -> animeService.findByIdOrThrowBadRequestException(1l));
+        Exception thrown = assertThrows(Exception.class, () -> animeService.findByIdOrThrowNotFoundException(1l));
 
         Assertions.assertThat(thrown.getMessage()).isEqualTo("Anime not found");
-        Assertions.assertThat(thrown.getClass()).isEqualTo(BadRequestException.class);
+        Assertions.assertThat(thrown.getClass()).isEqualTo(NotFoundException.class);
+        Assertions.assertThat(thrown.getStackTrace()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findByIdOrThrowNotFoundException hits the repository only once when anime is cached")
+    public void findByIdOrThrowNotFoundException_HitsRepositoryOnlyOnce_WhenAnimeIsCached() {
+        animeService.findByIdOrThrowNotFoundException(1l);
+        animeService.findByIdOrThrowNotFoundException(1l);
+        Mockito.verify(this.repository, Mockito.times(1)).findById(1l);
+    }
+
+    @Test
+    @DisplayName("findByIdOrThrowNotFoundException caches not found result")
+    public void findByIdOrThrowNotFoundException_CachesNotFoundResult() {
+        BDDMockito.when(this.repository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.<Anime>empty());
+
+        assertThrows(NotFoundException.class, () -> animeService.findByIdOrThrowNotFoundException(2l));
+        assertThrows(NotFoundException.class, () -> animeService.findByIdOrThrowNotFoundException(2l));
+
+        Mockito.verify(this.repository, Mockito.times(1)).findById(2l);
+    }
+
+    @Test
+    @DisplayName("replace refreshes cached anime when successful")
+    public void replace_RefreshesCachedAnime_WhenSuccessful() {
+        animeService.findByIdOrThrowNotFoundException(1l);
+        BDDMockito.when(this.repository.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(AnimeCreator.createValidUpdatedAnime()));
+
+        animeService.replace(AnimeUtil.putBodyfromValidAnime(), null);
+
+        Anime anime = animeService.findByIdOrThrowNotFoundException(1l);
+        Assertions.assertThat(anime.getName()).isEqualTo(AnimeCreator.createValidUpdatedAnime().getName());
+    }
+
+    @Test
+    @DisplayName("save updates the cache only after the transaction commits")
+    public void save_UpdatesCacheOnlyAfterCommit_WhenTransactionIsActive() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Anime saved = animeService.save(AnimeUtil.postBodyfromValidAnime());
+
+            Mockito.verify(this.cache, Mockito.never()).put(ArgumentMatchers.any());
+            commit();
+            Mockito.verify(this.cache).put(saved);
+            Mockito.verify(this.cache).evictName(saved.getName());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("delete leaves the counter untouched when the transaction rolls back")
+    public void delete_DoesNotUpdateCounter_WhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            animeService.delete(1L, null);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            Mockito.verifyNoInteractions(this.counter);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("replace with If-Match keeps the cached version until the transaction commits")
+    public void replace_KeepsCachedVersion_UntilTransactionCommits() {
+        Anime cached = animeService.findByIdOrThrowNotFoundException(1l);
+        AnimePutRequestBody animeBody = AnimeUtil.putBodyfromValidAnime();
+        BDDMockito.when(this.repository.updateNameIfVersion(animeBody.getId(), animeBody.getName(), 1L)).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            animeService.replace(animeBody, 1L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            Assertions.assertThat(animeService.findByIdOrThrowNotFoundException(1l)).isSameAs(cached);
+            commit();
+            Mockito.verify(this.cache).evict(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
@@ -109,14 +242,122 @@ public class AnimeServiceTest {
     @Test
     @DisplayName("replace returns no content when successful")
     public void replace_ReturnsNoContent_WhenSuccessful() {
-        Assertions.assertThatCode(() -> animeService.replace(AnimeUtil.putBodyfromValidAnime()))
+        Assertions.assertThatCode(() -> animeService.replace(AnimeUtil.putBodyfromValidAnime(), null))
                 .doesNotThrowAnyException();
     }
 
     @Test
     @DisplayName("delete returns no content when successful")
     public void delete_ReturnsNoContent_WhenSuccessful() {
-        Assertions.assertThatCode(() -> animeService.delete(1l)).doesNotThrowAnyException();
+        Assertions.assertThatCode(() -> animeService.delete(1l, null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("replace and delete keep the search index in sync when successful")
+    public void replaceAndDelete_KeepSearchIndexInSync_WhenSuccessful() {
+        Anime updated = AnimeCreator.createValidUpdatedAnime();
+
+        animeService.replace(AnimeUtil.putBodyfromValidAnime(), null);
+        animeService.delete(updated.getId(), null);
+
+        BDDMockito.verify(this.searchIndex).index(updated.getId(), updated.getName());
+        BDDMockito.verify(this.searchIndex).remove(updated.getId());
+    }
+
+    @Test
+    @DisplayName("search throws BadRequestException when limit is out of range")
+    public void search_ThrowsBadRequestException_WhenLimitIsOutOfRange() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeService.search("naruto", 0));
+    }
+
+    @Test
+    @DisplayName("replace and delete throw PreconditionFailedException when If-Match version is outdated")
+    public void replaceAndDelete_ThrowPreconditionFailedException_WhenIfMatchVersionIsOutdated() {
+        BDDMockito.when(this.repository.findVersionById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(2L));
+
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> animeService.replace(AnimeUtil.putBodyfromValidAnime(), 1L));
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> animeService.delete(1L, 1L));
+        Mockito.verifyNoInteractions(this.searchIndex);
+    }
+
+    @Test
+    @DisplayName("replace and delete throw NotFoundException when the update affects no row")
+    public void replaceAndDelete_ThrowNotFoundException_WhenNoRowIsAffected() {
+        BDDMockito.when(this.repository.updateName(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString()))
+                .thenReturn(0);
+        BDDMockito.when(this.repository.deleteByIdReturningCount(ArgumentMatchers.anyLong())).thenReturn(0);
+
+        Assertions.assertThatExceptionOfType(NotFoundException.class)
+                .isThrownBy(() -> animeService.replace(AnimeUtil.putBodyfromValidAnime(), null))
+                .withMessage("Anime not found");
+        Assertions.assertThatExceptionOfType(NotFoundException.class)
+                .isThrownBy(() -> animeService.delete(1L, null))
+                .withMessage("Anime not found");
+    }
+
+    /** Cada escrita deve ser um único comando no banco: nada de findById, save (merge) ou delete(entity) */
+    @Test
+    @DisplayName("replace and delete use a single repository statement when successful")
+    public void replaceAndDelete_UseSingleRepositoryStatement_WhenSuccessful() {
+        AnimePutRequestBody animeBody = AnimeUtil.putBodyfromValidAnime();
+        BDDMockito.when(this.repository.updateNameIfVersion(animeBody.getId(), animeBody.getName(), 2L)).thenReturn(1);
+
+        animeService.replace(animeBody, null);
+        animeService.replace(animeBody, 2L);
+        animeService.delete(animeBody.getId(), null);
+
+        Mockito.verify(this.repository).updateName(animeBody.getId(), animeBody.getName());
+        Mockito.verify(this.repository).updateNameIfVersion(animeBody.getId(), animeBody.getName(), 2L);
+        Mockito.verify(this.repository).deleteByIdReturningCount(animeBody.getId());
+        Mockito.verifyNoMoreInteractions(this.repository);
+    }
+
+    @Test
+    @DisplayName("findAllByIds returns animes in request order and lists missing ids when successful")
+    public void findAllByIds_ReturnsAnimesInRequestOrderAndMissingIds_WhenSuccessful() {
+        BDDMockito.when(this.repository.findAllById(ArgumentMatchers.anyIterable())).thenReturn(List.of(
+                Anime.builder().id(3L).name("Naruto").build(), Anime.builder().id(1L).name("Hajime no Ippo").build()));
+
+        AnimeBatchResponse batch = animeService.findAllByIds(List.of(3L, 2L, 1L, 3L));
+        AnimeBatchResponse cached = animeService.findAllByIds(List.of(1L, 2L));
+
+        Assertions.assertThat(batch.getAnimes()).extracting(Anime::getId).containsExactly(3L, 1L);
+        Assertions.assertThat(batch.getMissing()).containsExactly(2L);
+        Assertions.assertThat(cached.getAnimes()).extracting(Anime::getId).containsExactly(1L);
+        Assertions.assertThat(cached.getMissing()).containsExactly(2L);
+        /** A segunda chamada, inclusive o id inexistente, é respondida pelo cache */
+        Mockito.verify(this.repository, Mockito.times(1)).findAllById(ArgumentMatchers.anyIterable());
     }
 
+    @Test
+    @DisplayName("findAllByIds splits the ids in chunks of 500 when there are more ids")
+    public void findAllByIds_SplitsIdsInChunks_WhenThereAreMoreIds() {
+        List<Long> ids = LongStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList());
+
+        AnimeBatchResponse batch = animeService.findAllByIds(ids);
+
+        Assertions.assertThat(batch.getAnimes()).isEmpty();
+        Assertions.assertThat(batch.getMissing()).hasSize(1000);
+        Mockito.verify(this.repository, Mockito.times(2))
+                .findAllById(ArgumentMatchers.<Iterable<Long>>argThat(chunk -> chunk.spliterator().getExactSizeIfKnown() == 500));
+    }
+
+    @Test
+    @DisplayName("findAllByIds throws BadRequestException when ids are empty, too many or null")
+    public void findAllByIds_ThrowsBadRequestException_WhenIdsAreEmptyTooManyOrNull() {
+        List<Long> tooMany = LongStream.rangeClosed(1, 1001).boxed().collect(Collectors.toList());
+
+        assertThrows(BadRequestException.class, () -> animeService.findAllByIds(Collections.emptyList()));
+        assertThrows(BadRequestException.class, () -> animeService.findAllByIds(tooMany));
+        assertThrows(BadRequestException.class, () -> animeService.findAllByIds(Arrays.asList(1L, null)));
+        Mockito.verifyNoInteractions(this.repository);
+    }
+
+    /** Simula o commit da transação que o @Transactional abriria */
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
 }
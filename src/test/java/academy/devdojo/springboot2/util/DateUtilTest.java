@@ -0,0 +1,24 @@
+package academy.devdojo.springboot2.util;
+
+import java.time.LocalDateTime;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DateUtilTest {
+
+    private final DateUtil dateUtil = new DateUtil();
+
+    @Test
+    @DisplayName("formatLocalDateTimeToDatabaseStyle reuses the text within the same second and formats the next one")
+    void formatLocalDateTimeToDatabaseStyle_ReusesTextWithinSameSecond_AndFormatsTheNextOne() {
+        String first = this.dateUtil.formatLocalDateTimeToDatabaseStyle(LocalDateTime.of(2020, 10, 1, 12, 30, 15, 1));
+        String sameSecond = this.dateUtil
+                .formatLocalDateTimeToDatabaseStyle(LocalDateTime.of(2020, 10, 1, 12, 30, 15, 999_000_000));
+        String nextSecond = this.dateUtil.formatLocalDateTimeToDatabaseStyle(LocalDateTime.of(2020, 10, 1, 12, 30, 16));
+
+        Assertions.assertThat(first).isEqualTo("2020-10-01 12:30:15").isSameAs(sameSecond);
+        Assertions.assertThat(nextSecond).isEqualTo("2020-10-01 12:30:16");
+    }
+}